@@ -69,6 +69,17 @@ public class ConfigManager {
      */
     private static final int DEFAULT_HUD_Y = 2;
 
+    /**
+     * Default maximum number of chat message classifications cached
+     */
+    private static final int DEFAULT_CHAT_CACHE_SIZE = 256;
+
+    /**
+     * Upper limit of the maximum number of chat message classifications
+     * cached
+     */
+    private static final int MAX_CHAT_CACHE_SIZE = 4096;
+
     /**
      * The only instance of this class
      */
@@ -143,6 +154,39 @@ public class ConfigManager {
      */
     private final EnumValue<DreamMode> currentDreamMode;
 
+    /**
+     * Maximum number of chat message classifications cached, where {@code 0}
+     * disables the cache
+     */
+    private final IntValue chatCacheSize;
+
+    /**
+     * Whether chat messages should be classified on a worker thread
+     */
+    private final BooleanValue asyncChatClassification;
+
+    /**
+     * Whether received chat messages should be recorded for offline replay
+     */
+    private final BooleanValue recordChat;
+
+    /**
+     * Whether diagnostic information should be shown on {@link HudGui}
+     */
+    private final BooleanValue showDebugInfo;
+
+    /**
+     * Whether {@link HudGui} should be rendered into an offscreen framebuffer
+     * that is only redrawn when its content changes
+     */
+    private final BooleanValue cacheHud;
+
+    /**
+     * Whether the time spent in each section of rendering {@link HudGui}
+     * should be measured and shown on it
+     */
+    private final BooleanValue profileHud;
+
     /**
      * Implementation of Singleton design pattern, which allows only one
      * instance of this class to be created.
@@ -180,6 +224,29 @@ public class ConfigManager {
         currentDreamMode = configSpecBuilder
                 .translation("hbwhelper.configGui.currentDreamMode.title")
                 .defineEnum("currentDreamMode", DreamMode.UNSELECTED);
+
+        // Advanced options below are not shown on the configuration screen
+        // and can only be changed in the configuration file
+        chatCacheSize = configSpecBuilder
+                .translation("hbwhelper.configGui.chatCacheSize.title")
+                .defineInRange("chatCacheSize", DEFAULT_CHAT_CACHE_SIZE,
+                        0, MAX_CHAT_CACHE_SIZE);
+        asyncChatClassification = configSpecBuilder
+                .translation(
+                        "hbwhelper.configGui.asyncChatClassification.title")
+                .define("asyncChatClassification", false);
+        recordChat = configSpecBuilder
+                .translation("hbwhelper.configGui.recordChat.title")
+                .define("recordChat", false);
+        showDebugInfo = configSpecBuilder
+                .translation("hbwhelper.configGui.showDebugInfo.title")
+                .define("showDebugInfo", false);
+        cacheHud = configSpecBuilder
+                .translation("hbwhelper.configGui.cacheHud.title")
+                .define("cacheHud", false);
+        profileHud = configSpecBuilder
+                .translation("hbwhelper.configGui.profileHud.title")
+                .define("profileHud", false);
     }
 
     /**
@@ -298,6 +365,66 @@ public class ConfigManager {
         return currentDreamMode.get();
     }
 
+    /**
+     * Returns the maximum number of chat message classifications cached, where
+     * {@code 0} means the cache is disabled.
+     *
+     * @return the maximum number of chat message classifications cached
+     */
+    public int chatCacheSize() {
+        return chatCacheSize.get();
+    }
+
+    /**
+     * Returns whether chat messages should be classified on a worker thread.
+     *
+     * @return whether chat messages should be classified on a worker thread
+     */
+    public boolean asyncChatClassification() {
+        return asyncChatClassification.get();
+    }
+
+    /**
+     * Returns whether received chat messages should be recorded for offline
+     * replay.
+     *
+     * @return whether received chat messages should be recorded
+     */
+    public boolean recordChat() {
+        return recordChat.get();
+    }
+
+    /**
+     * Returns whether diagnostic information should be shown on
+     * {@link HudGui HudGui}.
+     *
+     * @return whether diagnostic information should be shown on
+     *         {@code HudGui}
+     */
+    public boolean showDebugInfo() {
+        return showDebugInfo.get();
+    }
+
+    /**
+     * Returns whether {@link HudGui HudGui} should be rendered into an
+     * offscreen framebuffer that is only redrawn when its content changes.
+     *
+     * @return whether {@code HudGui} should be cached in a framebuffer
+     */
+    public boolean cacheHud() {
+        return cacheHud.get();
+    }
+
+    /**
+     * Returns whether the time spent in each section of rendering
+     * {@link HudGui HudGui} should be measured and shown on it.
+     *
+     * @return whether {@code HudGui} should be profiled
+     */
+    public boolean profileHud() {
+        return profileHud.get();
+    }
+
     // Modification Operations
 
     /**
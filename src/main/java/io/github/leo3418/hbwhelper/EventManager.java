@@ -25,15 +25,19 @@
 
 package io.github.leo3418.hbwhelper;
 
+import io.github.leo3418.hbwhelper.chat.ChatPipeline;
+import io.github.leo3418.hbwhelper.chat.ChatRecorder;
+import io.github.leo3418.hbwhelper.chat.ChatRules;
 import io.github.leo3418.hbwhelper.event.*;
 import io.github.leo3418.hbwhelper.game.GameManager;
 import io.github.leo3418.hbwhelper.game.GameTypeDetector;
+import io.github.leo3418.hbwhelper.game.GeneratorIndex;
 import io.github.leo3418.hbwhelper.gui.HudGui;
 import io.github.leo3418.hbwhelper.gui.QuickJoinMenuScreen;
 import io.github.leo3418.hbwhelper.util.GameDetector;
 import io.github.leo3418.hbwhelper.util.HypixelDetector;
-import io.github.leo3418.hbwhelper.util.InProgressGameDetector;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screen.DownloadTerrainScreen;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.Util;
 import net.minecraft.util.text.ITextComponent;
@@ -41,6 +45,10 @@ import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraftforge.client.event.*;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.BusBuilder;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -85,9 +93,10 @@ public class EventManager {
                     HbwHelper.NAME);
 
     /**
-     * The only instance of this class
+     * Number of client ticks between two checks for modification of the
+     * {@linkplain ChatRules chat rules} file
      */
-    private static final EventManager INSTANCE = new EventManager();
+    private static final int CHAT_RULES_CHECK_INTERVAL = 100;
 
     /**
      * The {@link HypixelDetector} instance
@@ -100,20 +109,36 @@ public class EventManager {
     private final GameDetector gameDetector;
 
     /**
-     * The {@link InProgressGameDetector} instance
+     * The {@link GameTypeDetector} instance
      */
-    private final InProgressGameDetector ipGameDetector;
+    private final GameTypeDetector gameTypeDetector;
 
     /**
-     * The {@link GameTypeDetector} instance
+     * The {@link GeneratorIndex} instance
      */
-    private final GameTypeDetector gameTypeDetector;
+    private final GeneratorIndex generatorIndex;
 
     /**
      * The {@link HudGui} instance
      */
     private final HudGui hudGui;
 
+    /**
+     * The {@link ConfigManager} instance
+     */
+    private final ConfigManager configManager;
+
+    /**
+     * The pipeline every chat message client receives goes through
+     */
+    private final ChatPipeline chatPipeline;
+
+    /**
+     * The recorder of chat messages client receives, which is only used when
+     * enabled in the configuration
+     */
+    private final ChatRecorder chatRecorder;
+
     /**
      * Whether the current {@link GameManager} instance returned by
      * {@link GameManager#getInstance()} should be cleared when client switches
@@ -129,6 +154,12 @@ public class EventManager {
      */
     private boolean shouldClearGMInstance;
 
+    /**
+     * Number of client ticks since the chat rules file was last checked for
+     * modification
+     */
+    private int ticksSinceChatRulesCheck;
+
     /**
      * Implementation of Singleton design pattern, which allows only one
      * instance of this class to be created.
@@ -136,9 +167,13 @@ public class EventManager {
     private EventManager() {
         hypixelDetector = HypixelDetector.getInstance();
         gameDetector = GameDetector.getInstance();
-        ipGameDetector = InProgressGameDetector.getInstance();
         gameTypeDetector = GameTypeDetector.getInstance();
+        generatorIndex = GeneratorIndex.getInstance();
         hudGui = HudGui.getInstance();
+        configManager = ConfigManager.getInstance();
+        chatPipeline = new ChatPipeline(configManager.chatCacheSize());
+        chatRecorder = new ChatRecorder();
+        hudGui.setChatPipeline(chatPipeline);
     }
 
     /**
@@ -147,7 +182,7 @@ public class EventManager {
      * @return the instance of this class
      */
     static EventManager getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
     /**
@@ -162,6 +197,12 @@ public class EventManager {
     @SubscribeEvent
     @SuppressWarnings("unused")
     public void onClientPlayerNetworkEvent(ClientPlayerNetworkEvent event) {
+        if (event instanceof ClientPlayerNetworkEvent.LoggedInEvent) {
+            chatPipeline.resetStatistics();
+        } else if (event instanceof ClientPlayerNetworkEvent.LoggedOutEvent) {
+            chatPipeline.flush();
+            chatRecorder.close();
+        }
         hypixelDetector.update(event);
         gameDetector.update(event);
     }
@@ -169,16 +210,51 @@ public class EventManager {
     @SubscribeEvent
     @SuppressWarnings("unused")
     public void onGuiOpen(GuiOpenEvent event) {
+        if (event.getGui() instanceof DownloadTerrainScreen) {
+            // Client is leaving the current world
+            chatPipeline.flush();
+        }
         gameDetector.update(event);
     }
 
     @SubscribeEvent
     @SuppressWarnings("unused")
     public void onClientChatReceived(ClientChatReceivedEvent event) {
-        gameDetector.update(event);
-        ipGameDetector.detect(event);
-        if (gameDetector.isIn() && GameManager.getInstance() != null) {
-            GameManager.getInstance().update(event);
+        // The configuration file might be reloaded at any time
+        chatPipeline.setCacheSize(configManager.chatCacheSize());
+        chatPipeline.setAsync(configManager.asyncChatClassification());
+        if (configManager.recordChat()) {
+            chatRecorder.record(event.getMessage(), gameDetector.isIn());
+        } else if (chatRecorder.isRecording()) {
+            chatRecorder.close();
+        }
+        chatPipeline.onChatReceived(event.getMessage());
+    }
+
+    @SubscribeEvent
+    @SuppressWarnings("unused")
+    public void onEntityJoinWorld(EntityJoinWorldEvent event) {
+        generatorIndex.update(event);
+    }
+
+    @SubscribeEvent
+    @SuppressWarnings("unused")
+    public void onEntityLeaveWorld(EntityLeaveWorldEvent event) {
+        generatorIndex.update(event);
+    }
+
+    @SubscribeEvent
+    @SuppressWarnings("unused")
+    public void onChunkLoad(ChunkEvent.Load event) {
+        generatorIndex.update(event);
+    }
+
+    @SubscribeEvent
+    @SuppressWarnings("unused")
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld().isClientSide()) {
+            chatPipeline.flush();
+            generatorIndex.clear();
         }
     }
 
@@ -191,6 +267,19 @@ public class EventManager {
     @SubscribeEvent
     @SuppressWarnings("unused")
     public void onClientTick(TickEvent.ClientTickEvent event) {
+        chatPipeline.onClientTick();
+        if (event.phase == TickEvent.Phase.END) {
+            generatorIndex.detectRenames();
+            GameManager game = GameManager.getInstance();
+            if (game != null && gameDetector.isIn()
+                    && Minecraft.getInstance().level != null) {
+                game.tick();
+            }
+            if (++ticksSinceChatRulesCheck >= CHAT_RULES_CHECK_INTERVAL) {
+                ticksSinceChatRulesCheck = 0;
+                ChatRules.reloadIfModified();
+            }
+        }
         gameTypeDetector.detect();
     }
 
@@ -255,4 +344,18 @@ public class EventManager {
             Minecraft.getInstance().setScreen(new QuickJoinMenuScreen());
         }
     }
+
+    /**
+     * Holder of the only instance of this class, which is created the first
+     * time {@link #getInstance()} is called rather than when this class is
+     * loaded, so the {@link #EVENT_BUS proprietary event bus} can be used
+     * without setting up the rest of this mod, e.g. when chat is replayed
+     * without a Minecraft client.
+     */
+    private static final class Holder {
+        /**
+         * The only instance of {@link EventManager}
+         */
+        private static final EventManager INSTANCE = new EventManager();
+    }
 }
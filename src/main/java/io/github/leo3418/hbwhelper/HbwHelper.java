@@ -25,6 +25,7 @@
 
 package io.github.leo3418.hbwhelper;
 
+import io.github.leo3418.hbwhelper.chat.ChatRules;
 import io.github.leo3418.hbwhelper.gui.ConfigScreen;
 import net.minecraftforge.fml.ExtensionPoint;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -51,6 +52,7 @@ public final class HbwHelper {
     }
 
     private void clientSetup(FMLClientSetupEvent event) {
+        ChatRules.load();
         EventManager.getInstance().registerOnEventBus();
         KeyBindings.registerBindings();
     }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The result of classifying a chat message against all
+ * {@linkplain ChatPrompt chat prompts} this mod reacts to, on which the
+ * detectors dispatch.
+ * <p>
+ * Objects of this class are immutable.
+ *
+ * @author Leo
+ */
+public final class ChatClassification {
+    /**
+     * Classification of a message that does not match any prompt
+     */
+    static final ChatClassification NO_MATCH =
+            new ChatClassification(null, 0L, 0);
+
+    /**
+     * The registry of prompts this classification refers to
+     */
+    private final List<ChatPrompt> prompts;
+
+    /**
+     * Bit mask of indices of the prompts the message matches
+     */
+    private final long matchedMask;
+
+    /**
+     * Level of the "DeadShot" upgrade in the message, or {@code 0} if the
+     * message does not contain a valid level
+     */
+    private final int deadShotLevel;
+
+    /**
+     * Constructs a new {@code ChatClassification} object.
+     *
+     * @param prompts the registry of prompts
+     * @param matchedMask bit mask of indices of the prompts the message
+     *         matches
+     * @param deadShotLevel level of the "DeadShot" upgrade in the message, or
+     *         {@code 0} if there is no valid level
+     */
+    ChatClassification(List<ChatPrompt> prompts, long matchedMask,
+                       int deadShotLevel) {
+        this.prompts = prompts;
+        this.matchedMask = matchedMask;
+        this.deadShotLevel = deadShotLevel;
+    }
+
+    /**
+     * Returns whether the message matches any prompt.
+     *
+     * @return whether the message matches any prompt
+     */
+    public boolean hasMatch() {
+        return matchedMask != 0L;
+    }
+
+    /**
+     * Returns whether the message matches any prompt of a type.
+     *
+     * @param type the type of prompts
+     * @return whether the message matches any prompt of the type
+     * @throws NullPointerException if {@code type == null}
+     */
+    public boolean matches(PromptType type) {
+        Objects.requireNonNull(type, "type");
+        return firstMatch(type) != null;
+    }
+
+    /**
+     * Returns the matched prompt of a type with the highest priority, or
+     * {@code null} if the message does not match any prompt of the type.
+     *
+     * @param type the type of prompts
+     * @return the matched prompt of the type with the highest priority, or
+     *         {@code null} if there is no such prompt
+     */
+    public ChatPrompt firstMatch(PromptType type) {
+        long remaining = matchedMask;
+        while (remaining != 0L) {
+            int index = Long.numberOfTrailingZeros(remaining);
+            ChatPrompt prompt = prompts.get(index);
+            if (prompt.getType() == type) {
+                return prompt;
+            }
+            remaining &= remaining - 1;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the matched prompt with the highest priority among all matched
+     * prompts whose types are in a {@link Set}, or {@code null} if the message
+     * does not match any prompt of those types.
+     *
+     * @param types the {@code Set} of types of prompts
+     * @return the matched prompt with the highest priority among all matched
+     *         prompts of the types, or {@code null} if there is no such prompt
+     * @throws NullPointerException if {@code types == null}
+     */
+    public ChatPrompt firstMatch(Set<PromptType> types) {
+        Objects.requireNonNull(types, "types");
+        long remaining = matchedMask;
+        while (remaining != 0L) {
+            int index = Long.numberOfTrailingZeros(remaining);
+            ChatPrompt prompt = prompts.get(index);
+            if (types.contains(prompt.getType())) {
+                return prompt;
+            }
+            remaining &= remaining - 1;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the level of the "DeadShot" upgrade in the message, or
+     * {@code 0} if the message does not contain a valid level.
+     *
+     * @return the level of the "DeadShot" upgrade in the message, or
+     *         {@code 0} if there is no valid level
+     */
+    public int getDeadShotLevel() {
+        return deadShotLevel;
+    }
+}
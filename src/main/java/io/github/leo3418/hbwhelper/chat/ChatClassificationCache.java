@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+
+import java.util.Objects;
+
+/**
+ * A bounded least-recently-used (LRU) cache of {@linkplain ChatClassification
+ * classifications} of chat messages, keyed by a
+ * {@linkplain TextRuns#structuralHash() structural hash} of each message.
+ * <p>
+ * Hypixel repeats many identical system messages, such as shop purchase
+ * confirmations and lobby join broadcasts. When such a message is received
+ * again, its classification is taken from this cache, so the message does
+ * not need to be matched against any prompt. A cached entry is only used if
+ * the runs of the cached message are identical to the runs of the new
+ * message, so hash collisions never produce a wrong classification. When a
+ * message is a text component, it is hashed and compared while walking the
+ * component, so a message whose classification is cached is never decoded
+ * into runs. All
+ * entries are discarded when the {@linkplain ChatRules chat rules} are
+ * reloaded.
+ *
+ * @author Leo
+ */
+public final class ChatClassificationCache {
+    /**
+     * Entries in this cache, ordered from the least recently used to the most
+     * recently used
+     */
+    private final Long2ObjectLinkedOpenHashMap<Entry> entries;
+
+    /**
+     * Maximum number of entries in this cache
+     */
+    private int maxSize;
+
+    /**
+     * {@linkplain ChatPrompts#getGeneration() Generation} of the prompts the
+     * cached classifications were made against
+     */
+    private int generation;
+
+    /**
+     * Number of messages whose classification is found in this cache
+     */
+    private long hits;
+
+    /**
+     * Number of messages whose classification is not found in this cache
+     */
+    private long misses;
+
+    /**
+     * Constructs a new {@code ChatClassificationCache} object.
+     *
+     * @param maxSize the maximum number of entries in the cache, where
+     *         {@code 0} disables the cache
+     * @throws IllegalArgumentException if {@code maxSize < 0}
+     */
+    public ChatClassificationCache(int maxSize) {
+        checkMaxSize(maxSize);
+        this.maxSize = maxSize;
+        this.entries = new Long2ObjectLinkedOpenHashMap<>();
+        this.generation = ChatPrompts.getGeneration();
+    }
+
+    /**
+     * Sets the classification of a chat message, using the cached result of
+     * an identical message if there is one, or classifying the message and
+     * caching the result otherwise. If the cache is disabled, the message is
+     * classified without being hashed.
+     *
+     * @param message the chat message
+     * @return the classification of the chat message
+     * @throws NullPointerException if {@code message == null}
+     */
+    public ChatClassification classify(ChatMessage message) {
+        Objects.requireNonNull(message, "message");
+        if (maxSize == 0) {
+            return message.getClassification();
+        }
+        int currentGeneration = ChatPrompts.getGeneration();
+        if (currentGeneration != generation) {
+            entries.clear();
+            generation = currentGeneration;
+        }
+        long key = message.structuralHash();
+        Entry entry = entries.getAndMoveToLast(key);
+        if (entry != null && message.sameRunsAs(entry.runs)) {
+            hits++;
+            message.setClassification(entry.classification);
+            return entry.classification;
+        }
+        misses++;
+        // The runs are kept by the entry and also used for classification
+        TextRuns runs = message.getRuns();
+        ChatClassification classification = message.getClassification();
+        entries.putAndMoveToLast(key, new Entry(runs, classification));
+        while (entries.size() > maxSize) {
+            entries.removeFirst();
+        }
+        return classification;
+    }
+
+    /**
+     * Returns the maximum number of entries in this cache.
+     *
+     * @return the maximum number of entries in this cache
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Changes the maximum number of entries in this cache, evicting the least
+     * recently used entries if necessary.
+     *
+     * @param maxSize the new maximum number of entries, where {@code 0}
+     *         disables the cache
+     * @throws IllegalArgumentException if {@code maxSize < 0}
+     */
+    public void setMaxSize(int maxSize) {
+        checkMaxSize(maxSize);
+        this.maxSize = maxSize;
+        while (entries.size() > maxSize) {
+            entries.removeFirst();
+        }
+    }
+
+    /**
+     * Returns the number of messages whose classification has been found in
+     * this cache since the statistics were last reset.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of messages whose classification has not been found
+     * in this cache since the statistics were last reset.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Resets the hit and miss counters of this cache.
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Checks if a maximum number of entries is valid.
+     *
+     * @param maxSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maxSize < 0}
+     */
+    private static void checkMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Negative size: " + maxSize);
+        }
+    }
+
+    /**
+     * An entry in the cache, which stores the runs of a message for
+     * verification together with the classification of the message.
+     */
+    private static final class Entry {
+        /**
+         * Runs of the cached message
+         */
+        private final TextRuns runs;
+
+        /**
+         * Classification of the cached message
+         */
+        private final ChatClassification classification;
+
+        /**
+         * Constructs a new {@code Entry} object.
+         *
+         * @param runs runs of the cached message
+         * @param classification classification of the cached message
+         */
+        private Entry(TextRuns runs, ChatClassification classification) {
+            this.runs = runs;
+            this.classification = classification;
+        }
+    }
+}
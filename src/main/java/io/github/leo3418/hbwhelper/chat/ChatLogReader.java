@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.util.TextRuns;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads chat messages from a log written by {@link ChatRecorder}.
+ * <p>
+ * Records are read one at a time by calling {@link #next()}, after which the
+ * fields of the record can be queried. Objects of this class are not
+ * thread-safe.
+ *
+ * @author Leo
+ */
+public final class ChatLogReader implements Closeable {
+    /**
+     * The stream the log is read from
+     */
+    private final DataInputStream in;
+
+    /**
+     * Buffer for the encoded contents of a run, which grows as needed
+     */
+    private byte[] contentBuffer;
+
+    /**
+     * {@link System#nanoTime()} when the current message was received
+     */
+    private long time;
+
+    /**
+     * Whether client was in a Bed Wars game when the current message was
+     * received
+     */
+    private boolean inGame;
+
+    /**
+     * Runs of the current message
+     */
+    private TextRuns runs;
+
+    /**
+     * Opens a log and checks its header.
+     *
+     * @param path the {@link Path} to the log
+     * @throws IOException if the log cannot be read, or if it is not a log
+     *         of a supported version
+     */
+    public ChatLogReader(Path path) throws IOException {
+        this.in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)));
+        this.contentBuffer = new byte[256];
+        try {
+            if (in.readInt() != ChatRecorder.MAGIC) {
+                throw new IOException("Not a chat log: " + path);
+            }
+            short version = in.readShort();
+            if (version != ChatRecorder.VERSION) {
+                throw new IOException("Unsupported chat log version "
+                        + version + ": " + path);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record in the log.
+     *
+     * @return {@code true} if a record has been read, or {@code false} if the
+     *         end of the log has been reached
+     * @throws IOException if an I/O error occurs or the record is truncated
+     */
+    public boolean next() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            runs = null;
+            return false;
+        }
+        if (length < Long.BYTES + Byte.BYTES + Short.BYTES) {
+            throw new IOException("Invalid record length: " + length);
+        }
+        time = in.readLong();
+        inGame = in.readByte() != 0;
+        int size = in.readShort();
+        runs = new TextRuns();
+        for (int i = 0; i < size; i++) {
+            int styleKey = in.readShort();
+            int contentLength = in.readInt();
+            if (contentLength <= 0) {
+                throw new IOException("Invalid run length: " + contentLength);
+            }
+            if (contentBuffer.length < contentLength) {
+                contentBuffer = new byte[Math.max(contentLength,
+                        contentBuffer.length * 2)];
+            }
+            in.readFully(contentBuffer, 0, contentLength);
+            runs.add(styleKey, new String(contentBuffer, 0, contentLength,
+                    StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@link System#nanoTime()} when the current message was
+     * received. Values are only comparable within the same log.
+     *
+     * @return {@code System.nanoTime()} when the current message was received
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns whether client was in a Bed Wars game when the current message
+     * was received.
+     *
+     * @return whether client was in a Bed Wars game when the current message
+     *         was received
+     */
+    public boolean isInGame() {
+        return inGame;
+    }
+
+    /**
+     * Returns the runs of the current message. A new {@link TextRuns} object
+     * is created for each record, so the returned object may be kept after
+     * the next record is read.
+     *
+     * @return the runs of the current message, or {@code null} if no record
+     *         has been read
+     */
+    public TextRuns getRuns() {
+        return runs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
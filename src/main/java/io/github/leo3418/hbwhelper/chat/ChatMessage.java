@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.util.TextComponents;
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import net.minecraft.util.text.ITextComponent;
+
+import java.util.Objects;
+
+/**
+ * A chat message client receives, decoded at most once and shared among all
+ * objects that analyze the message.
+ * <p>
+ * Flattening an {@link ITextComponent} into formatted text requires a
+ * traversal over the whole component tree. Instead of letting every detector
+ * flatten the same message again, a {@code ChatMessage} object should be
+ * created once per received message and passed to every detector; the
+ * formatted and plain forms of the message are computed on the first request
+ * and cached afterwards.
+ * <p>
+ * A {@code ChatMessage} object can also be created from {@linkplain TextRuns
+ * runs} captured earlier, e.g. when a message is handed to another thread or
+ * read from a recording, in which case there is no text component.
+ * <p>
+ * This class also keeps track of how many flattening operations have been
+ * saved by sharing decoded messages since the statistics were last reset.
+ * These statistics are only approximate when messages are classified on
+ * another thread.
+ *
+ * @author Leo
+ */
+public final class ChatMessage {
+    /**
+     * Number of times the formatted text of any message has been requested
+     */
+    private static long formattedTextRequests;
+
+    /**
+     * Number of times any message has actually been flattened
+     */
+    private static long flattenCount;
+
+    /**
+     * The text component of this message, or {@code null} if this message is
+     * created from runs
+     */
+    private final ITextComponent component;
+
+    /**
+     * Cache of the formatted text of this message, or {@code null} if it has
+     * not been computed yet
+     */
+    private String formattedText;
+
+    /**
+     * Cache of the plain text of this message, or {@code null} if it has not
+     * been computed yet
+     */
+    private String plainText;
+
+    /**
+     * Cache of the runs of this message, or {@code null} if they have not been
+     * read yet
+     */
+    private TextRuns runs;
+
+    /**
+     * Cache of the classification of this message, or {@code null} if it has
+     * not been computed yet
+     */
+    private ChatClassification classification;
+
+    /**
+     * Constructs a new {@code ChatMessage} object for a text component.
+     *
+     * @param component the text component of the message
+     * @throws NullPointerException if {@code component == null}
+     */
+    public ChatMessage(ITextComponent component) {
+        this.component = Objects.requireNonNull(component, "component");
+    }
+
+    /**
+     * Constructs a new {@code ChatMessage} object for a snapshot of the runs
+     * of a text component. The runs <b>must not</b> be modified afterwards.
+     *
+     * @param runs the runs of the message
+     * @throws NullPointerException if {@code runs == null}
+     */
+    public ChatMessage(TextRuns runs) {
+        this.component = null;
+        this.runs = Objects.requireNonNull(runs, "runs");
+    }
+
+    /**
+     * Returns the formatted text of this message, which is generated by
+     * {@link TextComponents#toFormattedText(ITextComponent)} when this method
+     * is called for the first time.
+     *
+     * @return the formatted text of this message
+     */
+    public String getFormattedText() {
+        formattedTextRequests++;
+        if (formattedText == null) {
+            flattenCount++;
+            formattedText = component != null
+                    ? TextComponents.toFormattedText(component)
+                    : runs.appendFormattedText(new StringBuilder()).toString();
+        }
+        return formattedText;
+    }
+
+    /**
+     * Returns the text of this message without any formatting code.
+     * <p>
+     * If this message is created from runs, the returned text is the contents
+     * of all runs, which does not include text of translated components.
+     *
+     * @return the text of this message without any formatting code
+     */
+    public String getPlainText() {
+        if (plainText == null) {
+            if (component != null) {
+                plainText = component.getString();
+            } else {
+                StringBuilder builder = new StringBuilder();
+                for (int i = 0; i < runs.size(); i++) {
+                    builder.append(runs.content(i));
+                }
+                plainText = builder.toString();
+            }
+        }
+        return plainText;
+    }
+
+    /**
+     * Returns the {@linkplain TextRuns runs} of this message, which are read
+     * from the text component when this method is called for the first time.
+     * <p>
+     * The returned object <b>must not</b> be modified.
+     *
+     * @return the runs of this message
+     */
+    public TextRuns getRuns() {
+        if (runs == null) {
+            runs = TextRuns.of(component);
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the {@linkplain TextRuns#structuralHash() structural hash} of
+     * the runs of this message, which does not read the runs from the text
+     * component if they have not been read yet.
+     *
+     * @return the structural hash of the runs of this message
+     */
+    long structuralHash() {
+        return runs != null ? runs.structuralHash()
+                : TextRuns.structuralHash(component);
+    }
+
+    /**
+     * Returns whether the runs of this message are the same as some runs,
+     * which does not read the runs from the text component if they have not
+     * been read yet.
+     *
+     * @param other the runs
+     * @return whether the runs of this message are the same as {@code other}
+     */
+    boolean sameRunsAs(TextRuns other) {
+        return runs != null ? runs.sameRunsAs(other)
+                : other.sameRunsAs(component);
+    }
+
+    /**
+     * Returns the classification of this message against all
+     * {@linkplain ChatPrompts registered prompts}, which is computed when this
+     * method is called for the first time.
+     *
+     * @return the classification of this message
+     */
+    public ChatClassification getClassification() {
+        if (classification == null) {
+            if (formattedText != null) {
+                // Reuses the formatted text flattened earlier
+                formattedTextRequests++;
+                classification = ChatPrompts.classify(formattedText);
+            } else if (runs != null) {
+                classification = ChatPrompts.classify(runs);
+            } else {
+                // Matches the component structurally, which only flattens the
+                // message when a prompt needs the formatted text
+                classification = ChatPrompts.classify(component);
+            }
+        }
+        return classification;
+    }
+
+    /**
+     * Sets the classification of this message to a result computed earlier
+     * for an identical message, so this message is not classified again.
+     *
+     * @param classification the classification of an identical message
+     */
+    void setClassification(ChatClassification classification) {
+        this.classification = classification;
+    }
+
+    /**
+     * Records that the formatted text of a message has been needed for
+     * classification, and that the message has been flattened for it.
+     */
+    static void recordFlatten() {
+        formattedTextRequests++;
+        flattenCount++;
+    }
+
+    /**
+     * Returns the number of flattening operations saved by sharing decoded
+     * messages since the statistics were last reset.
+     *
+     * @return the number of flattening operations saved since the statistics
+     *         were last reset
+     */
+    public static long getSavedFlattenCount() {
+        return formattedTextRequests - flattenCount;
+    }
+
+    /**
+     * Resets the statistics about flattening operations. This method should
+     * be called when a new session starts, i.e. when client connects to a
+     * server.
+     */
+    public static void resetStatistics() {
+        formattedTextRequests = 0;
+        flattenCount = 0;
+    }
+}
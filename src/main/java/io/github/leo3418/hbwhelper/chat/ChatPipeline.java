@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.game.GameManager;
+import io.github.leo3418.hbwhelper.util.GameDetector;
+import io.github.leo3418.hbwhelper.util.InProgressGameDetector;
+import io.github.leo3418.hbwhelper.util.SpscQueue;
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import net.minecraft.util.text.ITextComponent;
+
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The pipeline every chat message client receives goes through: the message
+ * is {@linkplain ChatPrefilter pre-filtered}, {@linkplain ChatPrompts
+ * classified} with the help of a {@linkplain ChatClassificationCache cache},
+ * and finally dispatched to the detectors, which react to the classification.
+ * <p>
+ * Classification can optionally run on a worker thread, so it does not
+ * compete with rendering and ticking on the client thread. In that mode, an
+ * immutable {@linkplain TextRuns snapshot} of each message is handed to the
+ * worker through a bounded single-producer/single-consumer queue, and the
+ * classified messages are dispatched on the client thread when
+ * {@link #onClientTick()} is called, in the same order as they were received.
+ * Dispatching always happens on the client thread, because the detectors are
+ * not thread-safe and the order of messages matters to them.
+ * <p>
+ * Except for the worker thread it manages, objects of this class must only be
+ * used on the client thread.
+ *
+ * @author Leo
+ */
+public final class ChatPipeline {
+    /**
+     * Capacity of each queue between the client thread and the worker thread
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * The {@link GameDetector} instance
+     */
+    private final GameDetector gameDetector;
+
+    /**
+     * The {@link InProgressGameDetector} instance
+     */
+    private final InProgressGameDetector ipGameDetector;
+
+    /**
+     * Filter that rejects chat messages which cannot match any prompt
+     */
+    private final ChatPrefilter prefilter;
+
+    /**
+     * Cache of classifications of recently received chat messages, which is
+     * only used by the worker thread when it is running
+     */
+    private final ChatClassificationCache cache;
+
+    /**
+     * The maximum number of entries in {@link #cache} requested most recently,
+     * which is applied by the thread using the cache
+     */
+    private volatile int requestedCacheSize;
+
+    /**
+     * The running worker thread, or {@code null} if messages are classified on
+     * the client thread
+     */
+    private Worker worker;
+
+    /**
+     * Constructs a new {@code ChatPipeline} object which classifies messages
+     * on the client thread.
+     *
+     * @param cacheSize the maximum number of classifications cached, where
+     *         {@code 0} disables the cache
+     * @throws IllegalArgumentException if {@code cacheSize < 0}
+     */
+    public ChatPipeline(int cacheSize) {
+        gameDetector = GameDetector.getInstance();
+        ipGameDetector = InProgressGameDetector.getInstance();
+        prefilter = new ChatPrefilter();
+        cache = new ChatClassificationCache(cacheSize);
+        requestedCacheSize = cacheSize;
+    }
+
+    /**
+     * Processes a chat message client receives.
+     * <p>
+     * If messages are classified on the worker thread, the message will be
+     * dispatched to the detectors in a later call to {@link #onClientTick()}
+     * or this method; otherwise, it is dispatched immediately.
+     *
+     * @param component the text component of the chat message
+     * @throws NullPointerException if {@code component == null}
+     */
+    public void onChatReceived(ITextComponent component) {
+        Objects.requireNonNull(component, "component");
+        if (worker != null) {
+            // Dispatches classified messages first to keep them in order
+            drainResults();
+        }
+        if (!prefilter.accepts(component)) {
+            // None of the detectors would react to this message
+            return;
+        }
+        if (worker != null) {
+            // The component might be mutated after this event, so only an
+            // immutable snapshot is handed to the worker
+            worker.submit(new ChatMessage(TextRuns.of(component)));
+        } else {
+            // Decodes the message only once for all detectors
+            ChatMessage message = new ChatMessage(component);
+            classify(message);
+            dispatch(message);
+        }
+    }
+
+    /**
+     * Processes a chat message given as plain data instead of a text
+     * component, e.g. one read from a recording. The message is pre-filtered,
+     * classified and dispatched immediately.
+     *
+     * @param message the chat message
+     * @throws NullPointerException if {@code message == null}
+     * @throws IllegalStateException if the worker thread is running
+     */
+    public void process(ChatMessage message) {
+        Objects.requireNonNull(message, "message");
+        if (worker != null) {
+            throw new IllegalStateException("Worker thread is running");
+        }
+        if (!prefilter.accepts(message.getRuns())) {
+            return;
+        }
+        classify(message);
+        dispatch(message);
+    }
+
+    /**
+     * Dispatches all messages the worker thread has classified to the
+     * detectors. This method should be called on every client tick.
+     */
+    public void onClientTick() {
+        if (worker != null) {
+            drainResults();
+        }
+    }
+
+    /**
+     * Dispatches all messages received so far to the detectors, waiting for
+     * the worker thread to classify them if necessary.
+     * <p>
+     * This method should be called before client leaves a world or a
+     * server, so messages received in a game are never dispatched after the
+     * detectors have moved on from the game.
+     */
+    public void flush() {
+        if (worker == null) {
+            return;
+        }
+        drainResults();
+        while (worker.pending > 0) {
+            Thread.yield();
+            drainResults();
+        }
+    }
+
+    /**
+     * Changes whether messages are classified on the worker thread. When the
+     * worker thread is stopped, all messages it has received are classified
+     * and dispatched before this method returns.
+     *
+     * @param async whether messages should be classified on the worker
+     *         thread
+     */
+    public void setAsync(boolean async) {
+        if (async && worker == null) {
+            worker = new Worker();
+            worker.start();
+        } else if (!async && worker != null) {
+            worker.shutdown();
+            boolean interrupted = false;
+            while (worker.isAlive()) {
+                drainResults();
+                try {
+                    worker.join(1);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            drainResults();
+            worker = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Changes the maximum number of classifications cached.
+     *
+     * @param cacheSize the new maximum number of classifications cached,
+     *         where {@code 0} disables the cache
+     * @throws IllegalArgumentException if {@code cacheSize < 0}
+     */
+    public void setCacheSize(int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Negative size: " + cacheSize);
+        }
+        requestedCacheSize = cacheSize;
+    }
+
+    /**
+     * Returns the filter that rejects chat messages which cannot match any
+     * prompt.
+     *
+     * @return the pre-filter of this pipeline
+     */
+    public ChatPrefilter getPrefilter() {
+        return prefilter;
+    }
+
+    /**
+     * Returns the cache of classifications of recently received chat
+     * messages. The statistics of the cache are only approximate when the
+     * worker thread is running.
+     *
+     * @return the classification cache of this pipeline
+     */
+    public ChatClassificationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Resets the statistics of this pipeline. This method should be called
+     * when a new session starts, i.e. when client connects to a server.
+     */
+    public void resetStatistics() {
+        ChatMessage.resetStatistics();
+        prefilter.resetStatistics();
+        cache.resetStatistics();
+    }
+
+    /**
+     * Classifies a message with the help of the cache. This method is called
+     * on the thread that currently owns the cache.
+     *
+     * @param message the message
+     */
+    private void classify(ChatMessage message) {
+        int cacheSize = requestedCacheSize;
+        if (cacheSize != cache.getMaxSize()) {
+            cache.setMaxSize(cacheSize);
+        }
+        cache.classify(message);
+    }
+
+    /**
+     * Lets the detectors react to a classified message.
+     *
+     * @param message the classified message
+     */
+    private void dispatch(ChatMessage message) {
+        gameDetector.update(message);
+        ipGameDetector.detect(message);
+        if (gameDetector.isIn() && GameManager.getInstance() != null) {
+            GameManager.getInstance().update(message);
+        }
+    }
+
+    /**
+     * Dispatches all messages the worker thread has classified so far.
+     */
+    private void drainResults() {
+        ChatMessage message;
+        while ((message = worker.results.poll()) != null) {
+            worker.pending--;
+            dispatch(message);
+        }
+    }
+
+    /**
+     * The worker thread that classifies messages.
+     */
+    private final class Worker extends Thread {
+        /**
+         * Messages waiting to be classified
+         */
+        private final SpscQueue<ChatMessage> requests =
+                new SpscQueue<>(QUEUE_CAPACITY);
+
+        /**
+         * Classified messages waiting to be dispatched
+         */
+        private final SpscQueue<ChatMessage> results =
+                new SpscQueue<>(QUEUE_CAPACITY);
+
+        /**
+         * Whether this thread should stop after classifying all messages it
+         * has received
+         */
+        private volatile boolean stopping;
+
+        /**
+         * Number of messages handed to this thread and not dispatched yet,
+         * which is only accessed by the client thread
+         */
+        private int pending;
+
+        /**
+         * Constructs a new {@code Worker} thread.
+         */
+        private Worker() {
+            super("HBW Helper Chat Classifier");
+            setDaemon(true);
+        }
+
+        /**
+         * Hands a message to this thread. If the queue is full, waits for
+         * this thread to catch up while dispatching classified messages.
+         *
+         * @param message the message
+         */
+        private void submit(ChatMessage message) {
+            while (!requests.offer(message)) {
+                drainResults();
+                Thread.yield();
+            }
+            pending++;
+            LockSupport.unpark(this);
+        }
+
+        /**
+         * Asks this thread to stop after classifying all messages it has
+         * received.
+         */
+        private void shutdown() {
+            stopping = true;
+            LockSupport.unpark(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                ChatMessage message = requests.poll();
+                if (message == null) {
+                    if (stopping && requests.isEmpty()) {
+                        return;
+                    }
+                    LockSupport.park(this);
+                    continue;
+                }
+                classify(message);
+                while (!results.offer(message)) {
+                    // The client thread has fallen behind
+                    LockSupport.parkNanos(this, 1_000_000L);
+                }
+            }
+        }
+    }
+}
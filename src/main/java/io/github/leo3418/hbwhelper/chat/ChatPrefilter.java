@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.util.TextComponents;
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import net.minecraft.util.text.ITextComponent;
+
+import java.util.Objects;
+
+/**
+ * A cheap filter that rejects chat messages which cannot match any
+ * {@linkplain ChatPrompts registered prompt} before any string work is done on
+ * them.
+ * <p>
+ * Every prompt starts with a run in one of a few styles, like gold text or
+ * bold white text. Player chat, which makes up most of the chat volume in big
+ * lobbies, rarely contains a run in any of those styles. This filter visits
+ * the runs of a message and only compares their style keys, stopping at the
+ * first run whose style can start a prompt. A message is conservatively
+ * accepted if any run has legacy formatting codes embedded in its contents,
+ * or if any prompt can only be matched against formatted text.
+ * <p>
+ * Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+public final class ChatPrefilter implements TextComponents.RunVisitor {
+    /**
+     * Number of messages accepted by this filter
+     */
+    private long accepted;
+
+    /**
+     * Number of messages rejected by this filter
+     */
+    private long rejected;
+
+    /**
+     * Whether the message being visited has been accepted
+     */
+    private boolean accepting;
+
+    /**
+     * Returns whether a chat message might match any registered prompt. If
+     * this method returns {@code false}, the message is guaranteed not to
+     * match any prompt.
+     *
+     * @param message the text component of the chat message
+     * @return whether the chat message might match any registered prompt
+     * @throws NullPointerException if {@code message == null}
+     */
+    public boolean accepts(ITextComponent message) {
+        Objects.requireNonNull(message, "message");
+        if (ChatPrompts.requiresFormattedText()) {
+            accepting = true;
+        } else {
+            accepting = false;
+            TextComponents.visitRuns(message, this);
+        }
+        if (accepting) {
+            accepted++;
+        } else {
+            rejected++;
+        }
+        return accepting;
+    }
+
+    /**
+     * Returns whether a chat message given as {@linkplain TextRuns runs} might
+     * match any registered prompt. If this method returns {@code false}, the
+     * message is guaranteed not to match any prompt.
+     *
+     * @param runs the runs of the chat message
+     * @return whether the chat message might match any registered prompt
+     * @throws NullPointerException if {@code runs == null}
+     */
+    public boolean accepts(TextRuns runs) {
+        Objects.requireNonNull(runs, "runs");
+        accepting = ChatPrompts.requiresFormattedText();
+        for (int i = 0; i < runs.size() && !accepting; i++) {
+            visit(runs.styleKey(i), runs.content(i));
+        }
+        if (accepting) {
+            accepted++;
+        } else {
+            rejected++;
+        }
+        return accepting;
+    }
+
+    /**
+     * Accepts the message being visited and stops visiting if a run might
+     * start a prompt.
+     *
+     * @param styleKey the style key of the run
+     * @param content the contents of the run
+     * @return {@code false} if the message has been accepted, {@code true}
+     *         otherwise
+     */
+    @Override
+    public boolean visit(int styleKey, String content) {
+        if (ChatPrompts.isFirstStyleKey(styleKey)
+                || content.indexOf('\u00A7') >= 0) {
+            accepting = true;
+        }
+        return !accepting;
+    }
+
+    /**
+     * Returns the number of messages accepted by this filter since the
+     * statistics were last reset.
+     *
+     * @return the number of messages accepted by this filter
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Returns the number of messages rejected by this filter since the
+     * statistics were last reset.
+     *
+     * @return the number of messages rejected by this filter
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns the ratio of messages rejected by this filter to all messages
+     * it has checked since the statistics were last reset, or {@code 0} if no
+     * message has been checked.
+     *
+     * @return the ratio of rejected messages to all messages checked
+     */
+    public double getRejectRatio() {
+        long total = accepted + rejected;
+        return total == 0 ? 0 : (double) rejected / total;
+    }
+
+    /**
+     * Resets the statistics of this filter.
+     */
+    public void resetStatistics() {
+        accepted = 0;
+        rejected = 0;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.game.ForgeLevel;
+import io.github.leo3418.hbwhelper.game.TrapType;
+
+import java.util.Objects;
+
+/**
+ * A chat prompt in Hypixel Bed Wars that this mod reacts to, which consists
+ * of the formatted text to be found in chat messages and the typed action the
+ * prompt stands for.
+ *
+ * @author Leo
+ */
+public final class ChatPrompt {
+    /**
+     * Index of this prompt in the registry of all prompts, which also
+     * determines its priority when a message matches multiple prompts
+     */
+    final int index;
+
+    /**
+     * Type of this prompt
+     */
+    private final PromptType type;
+
+    /**
+     * Part of the formatted text of this prompt
+     */
+    private final String text;
+
+    /**
+     * The level of resource generation speed this prompt stands for, or
+     * {@code null} if this prompt is not about resource generation speed
+     */
+    private final ForgeLevel forgeLevel;
+
+    /**
+     * The type of trap this prompt stands for, or {@code null} if this prompt
+     * is not about a trap
+     */
+    private final TrapType trapType;
+
+    /**
+     * Constructs a new {@code ChatPrompt} object.
+     *
+     * @param index the index of this prompt in the registry
+     * @param type the type of this prompt
+     * @param text part of the formatted text of this prompt
+     * @param forgeLevel the level of resource generation speed this prompt
+     *         stands for, or {@code null} if not applicable
+     * @param trapType the type of trap this prompt stands for, or
+     *         {@code null} if not applicable
+     * @throws NullPointerException if {@code type == null} or
+     *         {@code text == null}
+     */
+    ChatPrompt(int index, PromptType type, String text,
+               ForgeLevel forgeLevel, TrapType trapType) {
+        this.index = index;
+        this.type = Objects.requireNonNull(type, "type");
+        this.text = Objects.requireNonNull(text, "text");
+        this.forgeLevel = forgeLevel;
+        this.trapType = trapType;
+    }
+
+    /**
+     * Returns the type of this prompt.
+     *
+     * @return the type of this prompt
+     */
+    public PromptType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the part of the formatted text of this prompt that is searched
+     * in chat messages.
+     *
+     * @return the part of the formatted text of this prompt
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the level of resource generation speed this prompt stands for,
+     * or {@code null} if this prompt is not about resource generation speed.
+     *
+     * @return the level of resource generation speed this prompt stands for,
+     *         or {@code null} if not applicable
+     */
+    public ForgeLevel getForgeLevel() {
+        return forgeLevel;
+    }
+
+    /**
+     * Returns the type of trap this prompt stands for, or {@code null} if
+     * this prompt is not about a trap.
+     *
+     * @return the type of trap this prompt stands for, or {@code null} if not
+     *         applicable
+     */
+    public TrapType getTrapType() {
+        return trapType;
+    }
+}
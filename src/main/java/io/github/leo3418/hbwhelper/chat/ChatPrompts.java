@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.util.ComponentPattern;
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import net.minecraft.util.text.ITextComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The registry of all {@linkplain ChatPrompt chat prompts} this mod reacts
+ * to, which classifies a chat message against every prompt.
+ * <p>
+ * Whenever possible, a message is classified by comparing its
+ * {@linkplain TextRuns runs} against the {@linkplain ComponentPattern
+ * structural patterns} of the prompts, so the message is never serialized to
+ * formatted text. Otherwise, every prompt is found in a single pass over the
+ * formatted text of the message.
+ * <p>
+ * The prompts are compiled from the {@linkplain ChatRules chat rules}, in the
+ * order of the rules, so the index of a prompt also serves as its priority.
+ * They may be replaced at any time when the rules are reloaded.
+ *
+ * @author Leo
+ */
+public final class ChatPrompts {
+    /**
+     * Maximum number of prompts, which is limited by the width of the bit
+     * mask in a {@link ChatClassification}
+     */
+    public static final int MAX_PROMPTS = Long.SIZE;
+
+    /**
+     * Roman numerals of all levels of the "DeadShot" upgrade, where the
+     * numeral at index {@code i} stands for level {@code i + 1}
+     */
+    private static final String[] DEADSHOT_LEVELS = {"I", "II", "III", "IV"};
+
+    /**
+     * The reusable {@link TextRuns} confined to each thread
+     */
+    private static final ThreadLocal<TextRuns> RUNS =
+            ThreadLocal.withInitial(TextRuns::new);
+
+    /**
+     * The prompts currently in use, compiled for matching
+     */
+    private static volatile Registry registry;
+
+    /**
+     * Number of times the prompts in use have been replaced
+     */
+    private static volatile int generation;
+
+    static {
+        install(ChatRules.loadBundled());
+    }
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private ChatPrompts() {
+    }
+
+    /**
+     * Replaces the prompts in use. Messages being classified when this method
+     * is called are classified against either the old or the new prompts as a
+     * whole.
+     *
+     * @param prompts the new prompts, where each prompt is stored at its
+     *         index and the index also serves as its priority
+     * @throws NullPointerException if {@code prompts == null}
+     * @throws IllegalArgumentException if there are more than
+     *         {@link #MAX_PROMPTS} prompts
+     */
+    static synchronized void install(List<ChatPrompt> prompts) {
+        Objects.requireNonNull(prompts, "prompts");
+        if (prompts.size() > MAX_PROMPTS) {
+            throw new IllegalArgumentException("Too many prompts: "
+                    + prompts.size());
+        }
+        registry = new Registry(prompts);
+        generation++;
+    }
+
+    /**
+     * Returns the number of times the prompts in use have been replaced, so
+     * results of classifications cached by a caller can be discarded once it
+     * changes.
+     *
+     * @return the number of times the prompts in use have been replaced
+     */
+    static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Classifies a chat message given as a text component.
+     *
+     * @param component the text component of the chat message
+     * @return the classification of the chat message
+     * @throws NullPointerException if {@code component == null}
+     */
+    public static ChatClassification classify(ITextComponent component) {
+        Objects.requireNonNull(component, "component");
+        TextRuns runs = RUNS.get().readFrom(component);
+        try {
+            return classify(runs);
+        } finally {
+            runs.clear();
+        }
+    }
+
+    /**
+     * Classifies a chat message given as {@linkplain TextRuns runs}.
+     * <p>
+     * The runs are compared against structural patterns of the prompts unless
+     * any run has legacy formatting codes or any prompt cannot be matched
+     * structurally, in which case the formatted text is generated from the
+     * runs and searched instead.
+     *
+     * @param runs the runs of the chat message
+     * @return the classification of the chat message
+     * @throws NullPointerException if {@code runs == null}
+     */
+    public static ChatClassification classify(TextRuns runs) {
+        Objects.requireNonNull(runs, "runs");
+        Registry registry = ChatPrompts.registry;
+        if (runs.hasLegacyCodes() || !registry.allStructural) {
+            ChatMessage.recordFlatten();
+            return classify(registry,
+                    runs.appendFormattedText(new StringBuilder()));
+        }
+        long matchedMask = 0L;
+        int deadShotLevel = 0;
+        for (int start = 0; start < runs.size(); start++) {
+            int key = runs.styleKey(start);
+            int[] candidates = registry.candidatesFor(key);
+            if (candidates == null) {
+                continue;
+            }
+            for (int index : candidates) {
+                long bit = 1L << index;
+                ComponentPattern pattern = registry.patterns[index];
+                if ((matchedMask & bit) == 0L
+                        && pattern.matchesAt(runs, start)) {
+                    matchedMask |= bit;
+                    if (deadShotLevel == 0
+                            && registry.prompts.get(index).getType()
+                            == PromptType.DEADSHOT) {
+                        deadShotLevel = parseDeadShotLevel(
+                                runs.content(start + pattern.getRunCount() - 1),
+                                pattern.getLastSegmentText().length());
+                    }
+                }
+            }
+        }
+        if (matchedMask == 0L) {
+            return ChatClassification.NO_MATCH;
+        }
+        return new ChatClassification(registry.prompts, matchedMask,
+                deadShotLevel);
+    }
+
+    /**
+     * Classifies a chat message by finding all prompts in its formatted text.
+     *
+     * @param formattedText the formatted text of the chat message
+     * @return the classification of the chat message
+     * @throws NullPointerException if {@code formattedText == null}
+     */
+    public static ChatClassification classify(CharSequence formattedText) {
+        Objects.requireNonNull(formattedText, "formattedText");
+        return classify(registry, formattedText);
+    }
+
+    /**
+     * Classifies a chat message by finding all prompts in a registry in its
+     * formatted text.
+     *
+     * @param registry the registry
+     * @param formattedText the formatted text of the chat message
+     * @return the classification of the chat message
+     */
+    private static ChatClassification classify(Registry registry,
+                                               CharSequence formattedText) {
+        Collector collector = new Collector(registry.prompts, formattedText);
+        registry.matcher.match(formattedText, collector);
+        if (collector.matchedMask == 0L) {
+            return ChatClassification.NO_MATCH;
+        }
+        return new ChatClassification(registry.prompts,
+                collector.matchedMask, collector.deadShotLevel);
+    }
+
+    /**
+     * Returns whether some prompts can only be found in formatted text, in
+     * which case every message needs to be serialized to be classified.
+     *
+     * @return whether some prompts can only be found in formatted text
+     */
+    static boolean requiresFormattedText() {
+        return !registry.allStructural;
+    }
+
+    /**
+     * Returns whether the first run of any prompt's structural pattern has a
+     * style key.
+     *
+     * @param styleKey the style key
+     * @return whether the first run of any prompt's structural pattern has the
+     *         style key
+     */
+    static boolean isFirstStyleKey(int styleKey) {
+        return registry.candidatesFor(styleKey) != null;
+    }
+
+    /**
+     * Returns level of the "DeadShot" upgrade whose Roman numeral starts at a
+     * position in a formatted text and is terminated by a reset formatting
+     * code ({@code §r}), or {@code 0} if there is no valid level.
+     *
+     * @param text the formatted text
+     * @param start the position where the Roman numeral starts
+     * @return level of the "DeadShot" upgrade at the position, or {@code 0}
+     *         if there is no valid level
+     */
+    private static int parseDeadShotLevel(CharSequence text, int start) {
+        for (int i = DEADSHOT_LEVELS.length - 1; i >= 0; i--) {
+            String numeral = DEADSHOT_LEVELS[i];
+            int end = start + numeral.length();
+            if (end + 1 < text.length()
+                    && regionEquals(text, start, numeral)
+                    && text.charAt(end) == '\u00A7'
+                    && text.charAt(end + 1) == 'r') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns level of the "DeadShot" upgrade whose Roman numeral starts at a
+     * position in the contents of a run and ends at the end of the contents,
+     * or {@code 0} if there is no valid level.
+     *
+     * @param content the contents of the run
+     * @param start the position where the Roman numeral starts
+     * @return level of the "DeadShot" upgrade in the run, or {@code 0} if
+     *         there is no valid level
+     */
+    private static int parseDeadShotLevel(String content, int start) {
+        for (int i = 0; i < DEADSHOT_LEVELS.length; i++) {
+            String numeral = DEADSHOT_LEVELS[i];
+            if (content.length() - start == numeral.length()
+                    && content.startsWith(numeral, start)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns whether a region of a {@link CharSequence} is equal to a
+     * {@link String}.
+     *
+     * @param text the {@code CharSequence}
+     * @param start the start of the region
+     * @param s the {@code String}
+     * @return whether the region is equal to the string
+     */
+    private static boolean regionEquals(CharSequence text, int start,
+                                        String s) {
+        if (start + s.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(start + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects matches found by a {@link PromptMatcher} in a single message.
+     */
+    private static final class Collector implements PromptMatcher.Listener {
+        /**
+         * The prompts being searched for
+         */
+        private final List<ChatPrompt> prompts;
+
+        /**
+         * The formatted text being searched
+         */
+        private final CharSequence text;
+
+        /**
+         * Bit mask of indices of the prompts matched so far
+         */
+        private long matchedMask;
+
+        /**
+         * Level of the "DeadShot" upgrade found so far
+         */
+        private int deadShotLevel;
+
+        /**
+         * Constructs a new {@code Collector} for a formatted text.
+         *
+         * @param prompts the prompts being searched for
+         * @param text the formatted text being searched
+         */
+        private Collector(List<ChatPrompt> prompts, CharSequence text) {
+            this.prompts = prompts;
+            this.text = text;
+        }
+
+        @Override
+        public void onMatch(int patternId, int end) {
+            matchedMask |= 1L << patternId;
+            if (deadShotLevel == 0
+                    && prompts.get(patternId).getType() == PromptType.DEADSHOT) {
+                deadShotLevel = parseDeadShotLevel(text, end);
+            }
+        }
+    }
+
+    /**
+     * An immutable set of prompts together with the data structures compiled
+     * from them for matching.
+     */
+    private static final class Registry {
+        /**
+         * Unmodifiable {@link List} of the prompts, in which each prompt is
+         * stored at its index
+         */
+        private final List<ChatPrompt> prompts;
+
+        /**
+         * The matcher compiled from formatted texts of the prompts
+         */
+        private final PromptMatcher matcher;
+
+        /**
+         * Structural patterns of the prompts, each stored at the index of the
+         * prompt
+         */
+        private final ComponentPattern[] patterns;
+
+        /**
+         * Whether every prompt can be matched structurally
+         */
+        private final boolean allStructural;
+
+        /**
+         * Indices of prompts whose structural patterns start with a style key,
+         * indexed by the style key
+         */
+        private final int[][] promptsByFirstStyleKey;
+
+        /**
+         * Compiles a {@link List} of prompts.
+         *
+         * @param prompts the prompts, each stored at its index
+         */
+        private Registry(List<ChatPrompt> prompts) {
+            this.prompts = Collections.unmodifiableList(
+                    new ArrayList<>(prompts));
+
+            List<String> texts = new ArrayList<>(prompts.size());
+            for (ChatPrompt prompt : prompts) {
+                texts.add(prompt.getText());
+            }
+            this.matcher = new PromptMatcher(texts);
+
+            this.patterns = new ComponentPattern[prompts.size()];
+            boolean allStructural = true;
+            int maxStyleKey = -1;
+            for (ChatPrompt prompt : prompts) {
+                ComponentPattern pattern =
+                        ComponentPattern.compile(prompt.getText());
+                patterns[prompt.index] = pattern;
+                if (pattern == null) {
+                    allStructural = false;
+                } else {
+                    maxStyleKey =
+                            Math.max(maxStyleKey, pattern.getFirstStyleKey());
+                }
+            }
+            this.allStructural = allStructural;
+
+            int[] counts = new int[maxStyleKey + 1];
+            for (ComponentPattern pattern : patterns) {
+                if (pattern != null) {
+                    counts[pattern.getFirstStyleKey()]++;
+                }
+            }
+            this.promptsByFirstStyleKey = new int[maxStyleKey + 1][];
+            for (int key = 0; key < counts.length; key++) {
+                if (counts[key] > 0) {
+                    promptsByFirstStyleKey[key] = new int[counts[key]];
+                    counts[key] = 0;
+                }
+            }
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i] != null) {
+                    int key = patterns[i].getFirstStyleKey();
+                    promptsByFirstStyleKey[key][counts[key]++] = i;
+                }
+            }
+        }
+
+        /**
+         * Returns indices of prompts whose structural patterns start with a
+         * style key, or {@code null} if there is no such prompt.
+         *
+         * @param styleKey the style key
+         * @return indices of prompts whose structural patterns start with the
+         *         style key, or {@code null} if there is no such prompt
+         */
+        private int[] candidatesFor(int styleKey) {
+            return styleKey >= 0 && styleKey < promptsByFirstStyleKey.length
+                    ? promptsByFirstStyleKey[styleKey] : null;
+        }
+    }
+}
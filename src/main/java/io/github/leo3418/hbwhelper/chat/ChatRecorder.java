@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import net.minecraft.util.text.ITextComponent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Objects;
+
+import static io.github.leo3418.hbwhelper.HbwHelper.MOD_ID;
+
+/**
+ * Records chat messages client receives to a binary log, so that a session
+ * can be replayed offline to benchmark and regression-test chat handling.
+ * <p>
+ * Each message is stored as its {@linkplain TextRuns runs}, which preserve
+ * everything the detectors of this mod read from the component tree. A log
+ * starts with a header consisting of {@link #MAGIC} as an {@code int} and
+ * {@link #VERSION} as a {@code short}, followed by records of the following
+ * format, where all numbers are big-endian:
+ * <ul>
+ * <li>{@code int}: length of the rest of the record in bytes</li>
+ * <li>{@code long}: {@link System#nanoTime()} when the message was
+ * received</li>
+ * <li>{@code byte}: {@code 1} if client was in a Bed Wars game when the
+ * message was received, or {@code 0} otherwise</li>
+ * <li>{@code short}: number of runs</li>
+ * <li>for each run, a {@code short} for its style key, an {@code int} for the
+ * length of its contents encoded in UTF-8, and the encoded contents</li>
+ * </ul>
+ * <p>
+ * Records are accumulated in a buffer and only written to the file through a
+ * {@link FileChannel} when the buffer is full or the recorder is
+ * {@linkplain #flush() flushed}, so recording a message normally does not
+ * touch the disk. Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+public final class ChatRecorder {
+    /**
+     * The first four bytes of every log, which are "HBWC" in ASCII
+     */
+    static final int MAGIC = 0x48425743;
+
+    /**
+     * Version of the format of logs written by this class
+     */
+    static final short VERSION = 1;
+
+    /**
+     * Size of the buffer records are accumulated in
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Number of bytes in a record besides the length prefix and the runs
+     */
+    private static final int RECORD_HEADER_SIZE =
+            Long.BYTES + Byte.BYTES + Short.BYTES;
+
+    /**
+     * {@link Path} to the directory logs are written to
+     */
+    private static final Path LOG_DIRECTORY =
+            Paths.get("logs", MOD_ID + "-chat");
+
+    /**
+     * Logger of this class
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Buffer records are accumulated in
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The reusable {@link TextRuns} messages are decoded into
+     */
+    private final TextRuns runs;
+
+    /**
+     * Contents of the runs of the message being recorded, encoded in UTF-8
+     */
+    private byte[][] encodedContents;
+
+    /**
+     * The channel to the log being written, or {@code null} if no log is open
+     */
+    private FileChannel channel;
+
+    /**
+     * {@link Path} to the log being written, or {@code null} if no log is
+     * open
+     */
+    private Path path;
+
+    /**
+     * Whether writing to the log has failed, in which case no more messages
+     * are recorded until the recorder is {@linkplain #close() closed}
+     */
+    private boolean failed;
+
+    /**
+     * Constructs a new {@code ChatRecorder} object. No log is created until
+     * the first message is recorded.
+     */
+    public ChatRecorder() {
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.runs = new TextRuns();
+        this.encodedContents = new byte[8][];
+    }
+
+    /**
+     * Records a chat message, creating a new log if none is open.
+     *
+     * @param component the text component of the chat message
+     * @param inGame whether client is in a Bed Wars game
+     * @throws NullPointerException if {@code component == null}
+     */
+    public void record(ITextComponent component, boolean inGame) {
+        Objects.requireNonNull(component, "component");
+        if (failed) {
+            return;
+        }
+        long time = System.nanoTime();
+        runs.readFrom(component);
+        try {
+            if (channel == null) {
+                open();
+            }
+            write(time, inGame);
+        } catch (IOException e) {
+            LOGGER.error("Failed to record chat to {}", path, e);
+            failed = true;
+        } finally {
+            runs.clear();
+        }
+    }
+
+    /**
+     * Returns whether a log is open.
+     *
+     * @return whether a log is open
+     */
+    public boolean isRecording() {
+        return channel != null;
+    }
+
+    /**
+     * Writes all buffered records to the log.
+     */
+    public void flush() {
+        if (channel == null || failed) {
+            return;
+        }
+        try {
+            drain();
+            channel.force(false);
+        } catch (IOException e) {
+            LOGGER.error("Failed to record chat to {}", path, e);
+            failed = true;
+        }
+    }
+
+    /**
+     * Writes all buffered records to the log and closes it. The next message
+     * recorded will be written to a new log.
+     */
+    public void close() {
+        if (channel != null) {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.error("Failed to close {}", path, e);
+            }
+            LOGGER.info("Recorded chat to {}", path);
+        }
+        buffer.clear();
+        channel = null;
+        path = null;
+        failed = false;
+    }
+
+    /**
+     * Creates a new log and writes its header to the buffer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void open() throws IOException {
+        Files.createDirectories(LOG_DIRECTORY);
+        String name = new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss")
+                .format(new Date());
+        path = LOG_DIRECTORY.resolve(name + ".bin");
+        for (int i = 1; Files.exists(path); i++) {
+            path = LOG_DIRECTORY.resolve(name + "-" + i + ".bin");
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        buffer.clear();
+        buffer.putInt(MAGIC).putShort(VERSION);
+    }
+
+    /**
+     * Writes a record of {@link #runs} to the buffer, draining the buffer to
+     * the log first if the record does not fit.
+     *
+     * @param time the time when the message was received
+     * @param inGame whether client is in a Bed Wars game
+     * @throws IOException if an I/O error occurs
+     */
+    private void write(long time, boolean inGame) throws IOException {
+        int size = runs.size();
+        if (encodedContents.length < size) {
+            encodedContents = new byte[Math.max(size,
+                    encodedContents.length * 2)][];
+        }
+        int length = RECORD_HEADER_SIZE;
+        for (int i = 0; i < size; i++) {
+            encodedContents[i] =
+                    runs.content(i).getBytes(StandardCharsets.UTF_8);
+            length += Short.BYTES + Integer.BYTES + encodedContents[i].length;
+        }
+
+        ByteBuffer target = buffer;
+        if (Integer.BYTES + length > buffer.remaining()) {
+            drain();
+            if (Integer.BYTES + length > buffer.capacity()) {
+                // Too large for the buffer; written on its own
+                target = ByteBuffer.allocate(Integer.BYTES + length);
+            }
+        }
+        target.putInt(length)
+                .putLong(time)
+                .put((byte) (inGame ? 1 : 0))
+                .putShort((short) size);
+        for (int i = 0; i < size; i++) {
+            target.putShort((short) runs.styleKey(i))
+                    .putInt(encodedContents[i].length)
+                    .put(encodedContents[i]);
+            encodedContents[i] = null;
+        }
+        if (target != buffer) {
+            target.flip();
+            while (target.hasRemaining()) {
+                channel.write(target);
+            }
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the log and empties the buffer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
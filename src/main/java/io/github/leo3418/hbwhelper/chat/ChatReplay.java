@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import io.github.leo3418.hbwhelper.EventManager;
+import io.github.leo3418.hbwhelper.event.ClientJoinInProgressGameEvent;
+import io.github.leo3418.hbwhelper.event.ClientRejoinGameEvent;
+import io.github.leo3418.hbwhelper.event.GameStartEvent;
+import io.github.leo3418.hbwhelper.game.CountedTrap;
+import io.github.leo3418.hbwhelper.game.GameManager;
+import io.github.leo3418.hbwhelper.game.GameType;
+import io.github.leo3418.hbwhelper.util.GameDetector;
+import io.github.leo3418.hbwhelper.util.HypixelDetector;
+import net.minecraftforge.eventbus.api.EventPriority;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Replays a chat session recorded by {@link ChatRecorder} through the
+ * {@linkplain ChatPipeline chat pipeline} and all detectors that react to
+ * chat, without a Minecraft client.
+ * <p>
+ * Client is treated as connected to Hypixel throughout the session. Whenever
+ * the recording shows that client was no longer in a Bed Wars game, the
+ * {@link GameDetector} is told that client has left the game, since the
+ * screen changes that normally signal it are not recorded. A new
+ * {@link GameManager} is created whenever a game starts or is rejoined.
+ * Classifications are not cached, so every message is measured at its full
+ * cost.
+ * <p>
+ * After the replay, the number of messages per second, the 50th and 99th
+ * percentiles of the time spent on each message, and the final state of the
+ * {@code GameManager} are printed to the standard output.
+ * <p>
+ * Usage: {@code ChatReplay <log> [game type]}, where the game type is a
+ * constant of {@link GameType} and defaults to {@link GameType#NORMAL}.
+ *
+ * @author Leo
+ */
+public final class ChatReplay {
+    /**
+     * Number of nanoseconds in a microsecond
+     */
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * Number of nanoseconds in a second
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private ChatReplay() {
+    }
+
+    /**
+     * Replays a recorded chat session.
+     *
+     * @param args the path to the log, optionally followed by the type of the
+     *         games in the session
+     * @throws IOException if the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ChatReplay <log> [game type]");
+            System.exit(2);
+        }
+        GameType gameType =
+                args.length > 1 ? GameType.valueOf(args[1]) : GameType.NORMAL;
+
+        GameDetector gameDetector = GameDetector.getInstance();
+        HypixelDetector.getInstance().override(true);
+        EventManager.EVENT_BUS.addListener(EventPriority.NORMAL, false,
+                GameStartEvent.class,
+                event -> GameManager.createInstance(gameType));
+        EventManager.EVENT_BUS.addListener(EventPriority.NORMAL, false,
+                ClientRejoinGameEvent.class, event -> {
+                    if (GameManager.getInstance() == null) {
+                        GameManager.createInstance(gameType);
+                    }
+                });
+        EventManager.EVENT_BUS.addListener(EventPriority.NORMAL, false,
+                ClientJoinInProgressGameEvent.class, event -> {
+                    if (!gameDetector.isIn()) {
+                        GameManager.clearInstance();
+                    }
+                });
+
+        ChatPipeline pipeline = new ChatPipeline(0);
+        long[] latencies = new long[1024];
+        int count = 0;
+        long totalTime = 0;
+        try (ChatLogReader reader = new ChatLogReader(Paths.get(args[0]))) {
+            while (reader.next()) {
+                if (!reader.isInGame()) {
+                    gameDetector.leave();
+                }
+                ChatMessage message = new ChatMessage(reader.getRuns());
+                long start = System.nanoTime();
+                pipeline.process(message);
+                long latency = System.nanoTime() - start;
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+                totalTime += latency;
+            }
+        }
+
+        System.out.printf("Messages: %d (%d accepted by the pre-filter)%n",
+                count, pipeline.getPrefilter().getAccepted());
+        if (count > 0) {
+            Arrays.sort(latencies, 0, count);
+            System.out.printf("Throughput: %.0f messages/s%n",
+                    count * NANOS_PER_SECOND / Math.max(totalTime, 1));
+            System.out.printf("Latency: p50 %.2f us, p99 %.2f us%n",
+                    percentile(latencies, count, 0.50) / NANOS_PER_MICRO,
+                    percentile(latencies, count, 0.99) / NANOS_PER_MICRO);
+        }
+        printGameState(GameManager.getInstance());
+    }
+
+    /**
+     * Returns a percentile of some sorted values using the nearest-rank
+     * method.
+     *
+     * @param sorted the values, sorted in ascending order
+     * @param count the number of values
+     * @param fraction the percentile as a fraction between {@code 0} and
+     *         {@code 1}
+     * @return the percentile of the values
+     */
+    private static long percentile(long[] sorted, int count, double fraction) {
+        int rank = (int) Math.ceil(fraction * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Prints the state of a {@link GameManager} to the standard output.
+     *
+     * @param gameManager the {@code GameManager}, or {@code null} if no game
+     *         has been detected
+     */
+    private static void printGameState(GameManager gameManager) {
+        if (gameManager == null) {
+            System.out.println("No Bed Wars game detected");
+            return;
+        }
+        System.out.println("Forge level: " + gameManager.getForgeLevel());
+        System.out.println("Heal Pool: " + gameManager.hasHealPool());
+        System.out.println("Dragon Buff: " + gameManager.hasDragonBuff());
+        System.out.println("DeadShot level: "
+                + gameManager.getDeadShotLevel());
+        StringBuilder traps = new StringBuilder("Traps:");
+        for (CountedTrap trap : gameManager.getTraps()) {
+            traps.append(' ').append(trap.getTrapType());
+        }
+        System.out.println(traps);
+    }
+}
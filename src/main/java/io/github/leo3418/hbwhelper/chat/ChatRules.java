@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.github.leo3418.hbwhelper.game.ForgeLevel;
+import io.github.leo3418.hbwhelper.game.TrapType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static io.github.leo3418.hbwhelper.HbwHelper.MOD_ID;
+
+/**
+ * Loads the table of chat rules, which maps prompt texts to the typed actions
+ * they stand for, and compiles it into the {@linkplain ChatPrompts prompt
+ * registry}.
+ * <p>
+ * The rules bundled with this mod are stored in
+ * {@code assets/hbwhelper/chat_rules.json}. If a file with the same format
+ * exists at {@code config/hbwhelper-chat-rules.json}, its rules are used
+ * instead, so prompts changed by Hypixel can be followed without waiting for
+ * a new version of this mod; the file is reloaded whenever it is modified.
+ * <p>
+ * A table is validated before it is compiled. A table is rejected if any rule
+ * has an unknown action, lacks an argument its action requires or has an
+ * argument its action does not take, or if any two rules are ambiguous, i.e.
+ * every message matching one rule also matches the other (because its text
+ * contains the other's text) but the rules stand for different actions.
+ *
+ * @author Leo
+ */
+public final class ChatRules {
+    /**
+     * Path to the bundled rules on the class path
+     */
+    private static final String BUNDLED_RULES = "/assets/hbwhelper/chat_rules.json";
+
+    /**
+     * {@link Path} to the file that overrides the bundled rules
+     */
+    private static final Path OVERRIDE_PATH =
+            Paths.get("config", MOD_ID + "-chat-rules.json");
+
+    /**
+     * Logger of this class
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Last modification time of the override file when it was last loaded,
+     * or {@code -1} if the override file was not loaded
+     */
+    private static long loadedOverrideTime = -1;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private ChatRules() {
+    }
+
+    /**
+     * Compiles the bundled rules, or those in the override file if it exists,
+     * into the prompt registry. If the override file is invalid, an error is
+     * logged, and the bundled rules are used.
+     * <p>
+     * This method should be called once when the client is being set up.
+     *
+     * @throws IllegalStateException if the bundled rules are invalid
+     */
+    public static void load() {
+        if (!loadOverride()) {
+            ChatPrompts.install(loadBundled());
+        }
+    }
+
+    /**
+     * Reloads the override file if it has been created or modified since it
+     * was last loaded, or restores the bundled rules if it has been deleted.
+     * If the new rules are invalid, an error is logged, and the rules in use
+     * are kept.
+     */
+    public static void reloadIfModified() {
+        long modifiedTime = overrideModifiedTime();
+        if (modifiedTime == -1) {
+            if (loadedOverrideTime != -1) {
+                loadedOverrideTime = -1;
+                ChatPrompts.install(loadBundled());
+                LOGGER.info("Restored bundled chat rules");
+            }
+        } else if (modifiedTime != loadedOverrideTime) {
+            loadOverride();
+        }
+    }
+
+    /**
+     * Returns the prompts compiled from the bundled rules.
+     *
+     * @return the prompts compiled from the bundled rules
+     * @throws IllegalStateException if the bundled rules are missing or
+     *         invalid
+     */
+    static List<ChatPrompt> loadBundled() {
+        InputStream stream = ChatRules.class.getResourceAsStream(BUNDLED_RULES);
+        if (stream == null) {
+            throw new IllegalStateException("Missing " + BUNDLED_RULES);
+        }
+        try (Reader reader = new InputStreamReader(stream,
+                StandardCharsets.UTF_8)) {
+            return compile(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + BUNDLED_RULES, e);
+        }
+    }
+
+    /**
+     * Parses and validates a table of chat rules, and returns the prompts
+     * compiled from it.
+     *
+     * @param reader the {@link Reader} of the table in JSON
+     * @return the prompts compiled from the table, in the order of the rules
+     * @throws NullPointerException if {@code reader == null}
+     * @throws IllegalArgumentException if the table is malformed or invalid
+     */
+    public static List<ChatPrompt> compile(Reader reader) {
+        Objects.requireNonNull(reader, "reader");
+        JsonArray rules;
+        try {
+            JsonElement root = new JsonParser().parse(reader);
+            if (!root.isJsonObject()
+                    || !root.getAsJsonObject().has("rules")
+                    || !root.getAsJsonObject().get("rules").isJsonArray()) {
+                throw new IllegalArgumentException("Missing \"rules\" array");
+            }
+            rules = root.getAsJsonObject().getAsJsonArray("rules");
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed JSON", e);
+        }
+
+        List<ChatPrompt> prompts = new ArrayList<>(rules.size());
+        for (JsonElement element : rules) {
+            prompts.add(compileRule(element, prompts.size()));
+        }
+        if (prompts.size() > ChatPrompts.MAX_PROMPTS) {
+            throw new IllegalArgumentException("Too many rules: "
+                    + prompts.size() + " > " + ChatPrompts.MAX_PROMPTS);
+        }
+        validate(prompts);
+        return Collections.unmodifiableList(prompts);
+    }
+
+    /**
+     * Compiles a rule into a prompt.
+     *
+     * @param element the rule in JSON
+     * @param index the index of the rule
+     * @return the prompt compiled from the rule
+     * @throws IllegalArgumentException if the rule is invalid
+     */
+    private static ChatPrompt compileRule(JsonElement element, int index) {
+        String where = "Rule " + index + ": ";
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException(where + "not an object");
+        }
+        JsonObject rule = element.getAsJsonObject();
+        PromptType type = getEnum(rule, "action", PromptType.class, where);
+        if (type == null) {
+            throw new IllegalArgumentException(where + "missing \"action\"");
+        }
+        String text = getString(rule, "text", where);
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException(where + "missing \"text\"");
+        }
+        ForgeLevel forgeLevel =
+                getEnum(rule, "forgeLevel", ForgeLevel.class, where);
+        TrapType trapType = getEnum(rule, "trap", TrapType.class, where);
+        boolean needsForgeLevel = type == PromptType.FORGE_LEVEL;
+        boolean needsTrap = type == PromptType.TRAP_PURCHASE
+                || type == PromptType.TRAP_SET_OFF;
+        if (needsForgeLevel != (forgeLevel != null)) {
+            throw new IllegalArgumentException(where + (needsForgeLevel
+                    ? "missing" : "unexpected") + " \"forgeLevel\"");
+        }
+        if (needsTrap != (trapType != null)) {
+            throw new IllegalArgumentException(where + (needsTrap
+                    ? "missing" : "unexpected") + " \"trap\"");
+        }
+        return new ChatPrompt(index, type, text, forgeLevel, trapType);
+    }
+
+    /**
+     * Rejects a {@link List} of prompts if any two of them are ambiguous.
+     *
+     * @param prompts the {@code List} of prompts
+     * @throws IllegalArgumentException if any two prompts are ambiguous
+     */
+    private static void validate(List<ChatPrompt> prompts) {
+        for (ChatPrompt a : prompts) {
+            for (ChatPrompt b : prompts) {
+                if (a == b) {
+                    continue;
+                }
+                boolean sameAction = a.getType() == b.getType()
+                        && a.getForgeLevel() == b.getForgeLevel()
+                        && a.getTrapType() == b.getTrapType();
+                if (a.getText().equals(b.getText()) && a.index < b.index) {
+                    throw new IllegalArgumentException("Rules " + a.index
+                            + " and " + b.index + " have the same text");
+                }
+                if (!sameAction && a.getText().contains(b.getText())
+                        && !a.getText().equals(b.getText())) {
+                    throw new IllegalArgumentException("Rule " + a.index
+                            + " is ambiguous with rule " + b.index
+                            + ": every message matching the former also"
+                            + " matches the latter");
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the override file if it exists.
+     *
+     * @return whether the override file has been loaded successfully
+     */
+    private static boolean loadOverride() {
+        long modifiedTime = overrideModifiedTime();
+        if (modifiedTime == -1) {
+            return false;
+        }
+        // Remembers the time even if loading fails, so an invalid file is not
+        // reloaded until it is modified again
+        loadedOverrideTime = modifiedTime;
+        try (Reader reader = Files.newBufferedReader(OVERRIDE_PATH,
+                StandardCharsets.UTF_8)) {
+            ChatPrompts.install(compile(reader));
+            LOGGER.info("Loaded chat rules from {}", OVERRIDE_PATH);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error("Failed to load chat rules from {}", OVERRIDE_PATH, e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the last modification time of the override file, or {@code -1}
+     * if it does not exist or cannot be read.
+     *
+     * @return the last modification time of the override file, or {@code -1}
+     *         if not available
+     */
+    private static long overrideModifiedTime() {
+        try {
+            return Files.isRegularFile(OVERRIDE_PATH)
+                    ? Files.getLastModifiedTime(OVERRIDE_PATH).toMillis()
+                    : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the string value of a member of a rule, or {@code null} if the
+     * member does not exist.
+     *
+     * @param rule the rule
+     * @param name the name of the member
+     * @param where the prefix of the message of any exception thrown
+     * @return the string value of the member, or {@code null} if it does not
+     *         exist
+     * @throws IllegalArgumentException if the member is not a string
+     */
+    private static String getString(JsonObject rule, String name,
+                                    String where) {
+        JsonElement element = rule.get(name);
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        if (!element.isJsonPrimitive()
+                || !element.getAsJsonPrimitive().isString()) {
+            throw new IllegalArgumentException(where + "\"" + name
+                    + "\" is not a string");
+        }
+        return element.getAsString();
+    }
+
+    /**
+     * Returns the enum constant named by a member of a rule, or {@code null}
+     * if the member does not exist.
+     *
+     * @param rule the rule
+     * @param name the name of the member
+     * @param enumClass the class of the enum
+     * @param where the prefix of the message of any exception thrown
+     * @param <E> the type of the enum
+     * @return the enum constant named by the member, or {@code null} if it
+     *         does not exist
+     * @throws IllegalArgumentException if the member does not name a
+     *         constant of the enum
+     */
+    private static <E extends Enum<E>> E getEnum(JsonObject rule, String name,
+                                                 Class<E> enumClass,
+                                                 String where) {
+        String value = getString(rule, name, where);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(enumClass, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(where + "unknown \"" + name
+                    + "\": " + value);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+import java.util.*;
+
+/**
+ * A multi-pattern string matcher based on the Aho-Corasick algorithm, which
+ * finds every occurrence of a fixed set of patterns in a single pass over the
+ * input text.
+ * <p>
+ * Patterns are identified by their indices in the list passed to the
+ * constructor. Once constructed, an object of this class is immutable and
+ * can be shared among threads.
+ *
+ * @author Leo
+ */
+final class PromptMatcher {
+    /**
+     * Receives the matches found by {@link #match(CharSequence, Listener)}.
+     */
+    interface Listener {
+        /**
+         * Called when an occurrence of a pattern is found.
+         *
+         * @param patternId the index of the pattern that has been found
+         * @param end the index after the last character of the occurrence in
+         *         the input text
+         */
+        void onMatch(int patternId, int end);
+    }
+
+    /**
+     * The root state of the automaton
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * For each state, sorted characters on the outgoing edges of the state
+     */
+    private final char[][] edgeChars;
+
+    /**
+     * For each state, target states of the outgoing edges, in the same order
+     * as {@link #edgeChars}
+     */
+    private final int[][] edgeTargets;
+
+    /**
+     * For each state, the state to fall back to when there is no outgoing
+     * edge for the next character
+     */
+    private final int[] fail;
+
+    /**
+     * For each state, indices of all patterns that end at the state, including
+     * those reachable through {@link #fail} links
+     */
+    private final int[][] outputs;
+
+    /**
+     * Constructs a new {@code PromptMatcher} which finds the given patterns.
+     *
+     * @param patterns the patterns to be found
+     * @throws NullPointerException if {@code patterns == null} or any pattern
+     *         is {@code null}
+     * @throws IllegalArgumentException if any pattern is empty
+     */
+    PromptMatcher(List<String> patterns) {
+        Objects.requireNonNull(patterns, "patterns");
+
+        // Builds the trie
+        List<Map<Character, Integer>> gotoMaps = new ArrayList<>();
+        List<List<Integer>> outputLists = new ArrayList<>();
+        gotoMaps.add(new TreeMap<>());
+        outputLists.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = Objects.requireNonNull(patterns.get(id),
+                    "pattern");
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern at " + id);
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = gotoMaps.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = gotoMaps.size();
+                    gotoMaps.add(new TreeMap<>());
+                    outputLists.add(new ArrayList<>());
+                    gotoMaps.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            outputLists.get(state).add(id);
+        }
+
+        // Computes failure links in breadth-first order, so the failure
+        // state of every state is finalized before the state itself is used
+        int stateCount = gotoMaps.size();
+        fail = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : gotoMaps.get(ROOT).values()) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (Map.Entry<Character, Integer> edge :
+                    gotoMaps.get(state).entrySet()) {
+                char c = edge.getKey();
+                int child = edge.getValue();
+                int fallback = fail[state];
+                while (fallback != ROOT
+                        && !gotoMaps.get(fallback).containsKey(c)) {
+                    fallback = fail[fallback];
+                }
+                Integer target = gotoMaps.get(fallback).get(c);
+                fail[child] = (target != null && target != child)
+                        ? target : ROOT;
+                outputLists.get(child).addAll(outputLists.get(fail[child]));
+                queue.add(child);
+            }
+        }
+
+        // Compacts the automaton into primitive arrays
+        edgeChars = new char[stateCount][];
+        edgeTargets = new int[stateCount][];
+        outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> gotoMap = gotoMaps.get(state);
+            edgeChars[state] = new char[gotoMap.size()];
+            edgeTargets[state] = new int[gotoMap.size()];
+            int i = 0;
+            // TreeMap iterates in ascending order of characters
+            for (Map.Entry<Character, Integer> edge : gotoMap.entrySet()) {
+                edgeChars[state][i] = edge.getKey();
+                edgeTargets[state][i] = edge.getValue();
+                i++;
+            }
+            List<Integer> outputList = outputLists.get(state);
+            outputs[state] = new int[outputList.size()];
+            for (int j = 0; j < outputList.size(); j++) {
+                outputs[state][j] = outputList.get(j);
+            }
+        }
+    }
+
+    /**
+     * Finds all occurrences of the patterns in a text in a single pass, and
+     * reports each of them to a {@link Listener} in the order their ends
+     * appear in the text.
+     *
+     * @param text the text to be searched
+     * @param listener the listener that receives the matches
+     * @throws NullPointerException if {@code text == null} or
+     *         {@code listener == null}
+     */
+    void match(CharSequence text, Listener listener) {
+        Objects.requireNonNull(text, "text");
+        Objects.requireNonNull(listener, "listener");
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = transition(state, c);
+            while (next == -1 && state != ROOT) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = next == -1 ? ROOT : next;
+            for (int patternId : outputs[state]) {
+                listener.onMatch(patternId, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the state reached by following the edge for a character from a
+     * state, or {@code -1} if there is no such edge.
+     *
+     * @param state the state to start from
+     * @param c the character on the edge
+     * @return the state reached by following the edge, or {@code -1} if there
+     *         is no such edge
+     */
+    private int transition(int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.chat;
+
+/**
+ * Enumeration of all types of chat prompts in Hypixel Bed Wars that this mod
+ * reacts to.
+ *
+ * @author Leo
+ */
+public enum PromptType {
+    /**
+     * Prompt shown when a new Bed Wars game starts
+     */
+    GAME_START,
+    /**
+     * Prompt shown when client rejoins a Bed Wars game
+     */
+    REJOIN,
+    /**
+     * Prompt shown when client joins an in-progress game for the first time
+     */
+    IN_PROGRESS_GAME_JOIN,
+    /**
+     * Prompt shown when a game join initiated by Hypixel is cancelled
+     */
+    TELEPORT_CANCELLED,
+    /**
+     * Prompt shown when the player's team unlocks "Heal Pool" upgrade
+     */
+    HEAL_POOL,
+    /**
+     * Prompt shown when the player's team unlocks "Dragon Buff" upgrade
+     */
+    DRAGON_BUFF,
+    /**
+     * Prompt shown when the player's team unlocks a level of "DeadShot"
+     * upgrade
+     */
+    DEADSHOT,
+    /**
+     * Prompt shown when the player's team unlocks a level of resource
+     * generation speed
+     */
+    FORGE_LEVEL,
+    /**
+     * Prompt shown when the player's team purchases a trap
+     */
+    TRAP_PURCHASE,
+    /**
+     * Prompt shown when a trap of the player's team is set off
+     */
+    TRAP_SET_OFF
+}
@@ -35,37 +35,21 @@ public enum ForgeLevel {
     /**
      * The initial resource generation speed level without any upgrade
      */
-    ORDINARY_FORGE("Not upgraded"),
+    ORDINARY_FORGE,
     /**
      * Resource generation speed level with "Iron Forge" upgrade
      */
-    IRON_FORGE("Iron Forge"),
+    IRON_FORGE,
     /**
      * Resource generation speed level with "Golden Forge" upgrade
      */
-    GOLDEN_FORGE("Golden Forge"),
+    GOLDEN_FORGE,
     /**
      * Resource generation speed level with "Emerald Forge" upgrade
      */
-    EMERALD_FORGE("Emerald Forge"),
+    EMERALD_FORGE,
     /**
      * Resource generation speed level with "Molten Forge" upgrade
      */
-    MOLTEN_FORGE("Molten Forge");
-
-    /**
-     * Part of the prompt shown when the player's team unlocks this level
-     * of resource generation speed
-     */
-    final String prompt;
-
-    /**
-     * Constructs a new constant of resource generation speed levels.
-     *
-     * @param name the name of this trap shown in any prompt in Hypixel
-     *         without any formatting code
-     */
-    ForgeLevel(String name) {
-        this.prompt = "\u00A7r\u00A76" + name + "\u00A7r";
-    }
+    MOLTEN_FORGE
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+import java.util.Objects;
+
+/**
+ * Enumeration of scheduled events in a Bed Wars game, whose countdowns are
+ * shown on the scoreboard, in the order they happen.
+ *
+ * @author Leo
+ */
+public enum GameEventType {
+    /**
+     * Diamond generators are upgraded to Tier II
+     */
+    DIAMOND_II("Diamond II", "hbwhelper.gameEvent.diamondII", 1, 1),
+    /**
+     * Emerald generators are upgraded to Tier II
+     */
+    EMERALD_II("Emerald II", "hbwhelper.gameEvent.emeraldII", 2, 1),
+    /**
+     * Diamond generators are upgraded to Tier III
+     */
+    DIAMOND_III("Diamond III", "hbwhelper.gameEvent.diamondIII", 2, 2),
+    /**
+     * Emerald generators are upgraded to Tier III
+     */
+    EMERALD_III("Emerald III", "hbwhelper.gameEvent.emeraldIII", 3, 2),
+    /**
+     * All beds are destroyed
+     */
+    BED_GONE("Bed gone", "hbwhelper.gameEvent.bedGone", 3, 3),
+    /**
+     * Sudden death starts, and Ender Dragons are spawned
+     */
+    SUDDEN_DEATH("Sudden Death", "hbwhelper.gameEvent.suddenDeath", 3, 3),
+    /**
+     * The game ends in a draw
+     */
+    GAME_END("Game End", "hbwhelper.gameEvent.gameEnd", 3, 3);
+
+    /**
+     * Name of this event on the scoreboard without any formatting code
+     */
+    final String scoreboardName;
+
+    /**
+     * Translate key for the name of this event
+     */
+    private final String translateKey;
+
+    /**
+     * Tier of diamond generators while this event is the next one
+     */
+    private final int diamondTier;
+
+    /**
+     * Tier of emerald generators while this event is the next one
+     */
+    private final int emeraldTier;
+
+    /**
+     * Constructs a new constant of scheduled events.
+     *
+     * @param scoreboardName name of this event on the scoreboard without any
+     *         formatting code
+     * @param translateKey translate key for the name of this event
+     * @param diamondTier tier of diamond generators while this event is the
+     *         next one
+     * @param emeraldTier tier of emerald generators while this event is the
+     *         next one
+     * @throws NullPointerException if {@code scoreboardName == null} or
+     *         {@code translateKey == null}
+     */
+    GameEventType(String scoreboardName, String translateKey,
+                  int diamondTier, int emeraldTier) {
+        this.scoreboardName =
+                Objects.requireNonNull(scoreboardName, "scoreboardName");
+        this.translateKey =
+                Objects.requireNonNull(translateKey, "translateKey");
+        this.diamondTier = diamondTier;
+        this.emeraldTier = emeraldTier;
+    }
+
+    /**
+     * Returns the translate key for the name of this event.
+     *
+     * @return the translate key for the name of this event
+     */
+    public String getTranslateKey() {
+        return translateKey;
+    }
+
+    /**
+     * Returns the tier of generators of a type while this event is the next
+     * one.
+     *
+     * @param type the type of generators
+     * @return the tier of generators of the type while this event is the next
+     *         one
+     */
+    public int getTierBefore(GeneratorType type) {
+        return type == GeneratorType.DIAMOND ? diamondTier : emeraldTier;
+    }
+}
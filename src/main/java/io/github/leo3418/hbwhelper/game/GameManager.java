@@ -25,13 +25,12 @@
 
 package io.github.leo3418.hbwhelper.game;
 
-import io.github.leo3418.hbwhelper.util.TextComponents;
+import io.github.leo3418.hbwhelper.chat.ChatMessage;
+import io.github.leo3418.hbwhelper.chat.ChatPrompt;
+import io.github.leo3418.hbwhelper.chat.PromptType;
 import net.minecraft.client.Minecraft;
-import net.minecraft.entity.Entity;
-import net.minecraft.entity.item.ArmorStandEntity;
-import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.item.Items;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.text.ITextComponent;
 import net.minecraftforge.client.event.ClientChatReceivedEvent;
 
 import java.util.*;
@@ -63,46 +62,20 @@ public class GameManager {
      */
     public static final int MAX_TRAPS = 3;
 
-    /*
-     * Note: Some of the prompts below in 1.14 and above differ from their
-     * counterpart in older Minecraft client versions.
-     */
-
-    /**
-     * Text that only appears in the line showing spawn time above a generator
-     */
-    private static final String GENERATOR_TEXT = "\u00A7eSpawns in \u00A7r\u00A7c";
-
-    /**
-     * Text that only appears in a diamond generator's display name
-     */
-    private static final String DIAMOND_GEN_TEXT = "\u00A7b\u00A7lDiamond\u00A7r";
-
-    /**
-     * Text that only appears in an emerald generator's display name
-     */
-    private static final String EMERALD_GEN_TEXT = "\u00A72\u00A7lEmerald\u00A7r";
-
-    /**
-     * Part of the prompt shown when the player's team unlocks "Heal Pool"
-     * upgrade
-     */
-    private static final String HEAL_POOL_PROMPT =
-            "\u00A7r\u00A76Heal Pool\u00A7r";
-
     /**
-     * Part of the prompt shown when the player's team unlocks "Dragon Buff"
-     * upgrade
+     * Types of chat prompts that update the player's team's upgrades
      */
-    private static final String DRAGON_BUFF_PROMPT =
-            "\u00A7r\u00A76Dragon Buff\u00A7r";
+    private static final Set<PromptType> UPGRADE_PROMPT_TYPES =
+            Collections.unmodifiableSet(EnumSet.of(PromptType.HEAL_POOL,
+                    PromptType.DRAGON_BUFF, PromptType.DEADSHOT,
+                    PromptType.FORGE_LEVEL, PromptType.TRAP_PURCHASE,
+                    PromptType.TRAP_SET_OFF));
 
     /**
-     * Part of the prompt shown when the player's team unlocks "DeadShot"
-     * upgrade
+     * All generator types, cached to avoid copying the array on every tick
      */
-    private static final String DEADSHOT_PROMPT =
-            "\u00A7r\u00A76DeadShot ";
+    private static final GeneratorType[] GENERATOR_TYPES =
+            GeneratorType.values();
 
     /**
      * Reference to the last created instance of this class
@@ -125,14 +98,15 @@ public class GameManager {
     private final Collection<CountedTrap> readOnlyTraps;
 
     /**
-     * Position of the diamond generator being read
+     * Timeline of scheduled events in the current game
      */
-    private BlockPos diamondGenPos;
+    private final GameTimeline timeline;
 
     /**
-     * Position of the emerald generator being read
+     * Projection of resource income under the current resource generation
+     * speed level and generator tiers
      */
-    private BlockPos emeraldGenPos;
+    private final ResourceProjection projection;
 
     /**
      * Level of resource generation speed on the player's base island
@@ -154,6 +128,56 @@ public class GameManager {
      */
     private int deadShotLevel;
 
+    /**
+     * Shortest spawn time among generators of each type as of
+     * {@link #snapshotTick}, indexed by ordinal of the generator type
+     */
+    private final int[] nextSpawnTimes;
+
+    /**
+     * Number of known generators of each type as of {@link #snapshotTick},
+     * indexed by ordinal of the generator type
+     */
+    private final int[] generatorCounts;
+
+    /**
+     * Number of loaded generators of each type as of {@link #snapshotTick},
+     * indexed by ordinal of the generator type
+     */
+    private final int[] loadedGeneratorCounts;
+
+    /**
+     * Distance from the player to the nearest generator of each type as of
+     * {@link #snapshotTick}, indexed by ordinal of the generator type
+     */
+    private final int[] nearestGeneratorDistances;
+
+    /**
+     * The nearest generator of each type to the player as of
+     * {@link #snapshotTick}, indexed by ordinal of the generator type
+     */
+    private final Generator[] nearestGenerators;
+
+    /**
+     * The cheapest team upgrade the player's team does not have as of
+     * {@link #snapshotTick}, or {@code null} if there is none
+     */
+    private TeamUpgrade nextUpgrade;
+
+    /**
+     * Projected number of seconds until {@link #nextUpgrade} is affordable as
+     * of {@link #snapshotTick}
+     */
+    private int secondsUntilNextUpgrade;
+
+    /**
+     * Game time when {@link #nextSpawnTimes}, {@link #generatorCounts},
+     * {@link #loadedGeneratorCounts}, {@link #nearestGeneratorDistances},
+     * {@link #nearestGenerators}, {@link #nextUpgrade} and
+     * {@link #secondsUntilNextUpgrade} were last computed
+     */
+    private long snapshotTick;
+
     /**
      * Constructs a new {@code GameManager} instance.
      *
@@ -168,6 +192,15 @@ public class GameManager {
         }
         this.readOnlyTraps =
                 Collections.unmodifiableCollection(trapQueue);
+        this.timeline = new GameTimeline();
+        this.projection = new ResourceProjection();
+        this.projection.update(forgeLevel, 1, 1);
+        this.snapshotTick = Long.MIN_VALUE;
+        this.nextSpawnTimes = new int[GENERATOR_TYPES.length];
+        this.generatorCounts = new int[GENERATOR_TYPES.length];
+        this.loadedGeneratorCounts = new int[GENERATOR_TYPES.length];
+        this.nearestGeneratorDistances = new int[GENERATOR_TYPES.length];
+        this.nearestGenerators = new Generator[GENERATOR_TYPES.length];
     }
 
     /**
@@ -221,18 +254,8 @@ public class GameManager {
      *         generator that can be read
      */
     public int getNextDiamond() {
-        int time;
-        if (diamondGenPos != null) {
-            time = getSpawnTime(diamondGenPos);
-        } else {
-            time = -1;
-        }
-        // When position of diamond generator not set or the current generator's
-        // display name is no longer readable, find a new diamond generator
-        if (time == -1) {
-            diamondGenPos = findGenerator(DIAMOND_GEN_TEXT);
-        }
-        return time;
+        updateSnapshot();
+        return nextSpawnTimes[GeneratorType.DIAMOND.ordinal()];
     }
 
     /**
@@ -243,18 +266,58 @@ public class GameManager {
      *         generator that can be read
      */
     public int getNextEmerald() {
-        int time;
-        if (emeraldGenPos != null) {
-            time = getSpawnTime(emeraldGenPos);
-        } else {
-            time = -1;
-        }
-        // When position of emerald generator not set or the current generator's
-        // display name is no longer readable, find a new emerald generator
-        if (time == -1) {
-            emeraldGenPos = findGenerator(EMERALD_GEN_TEXT);
-        }
-        return time;
+        updateSnapshot();
+        return nextSpawnTimes[GeneratorType.EMERALD.ordinal()];
+    }
+
+    /**
+     * Returns the number of known generators of a type on the map.
+     *
+     * @param type the type of generators
+     * @return the number of known generators of the type
+     */
+    public int getGeneratorCount(GeneratorType type) {
+        updateSnapshot();
+        return generatorCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of generators of a type whose spawn times can be
+     * read because their holograms are loaded.
+     *
+     * @param type the type of generators
+     * @return the number of loaded generators of the type
+     */
+    public int getLoadedGeneratorCount(GeneratorType type) {
+        updateSnapshot();
+        return loadedGeneratorCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the distance in blocks from the player to the nearest known
+     * generator of a type, or {@code -1} if no generator of the type is
+     * known.
+     *
+     * @param type the type of generators
+     * @return the distance from the player to the nearest generator of the
+     *         type, or {@code -1} if no generator of the type is known
+     */
+    public int getNearestGeneratorDistance(GeneratorType type) {
+        updateSnapshot();
+        return nearestGeneratorDistances[type.ordinal()];
+    }
+
+    /**
+     * Returns the known generator of a type nearest to the player, or
+     * {@code null} if no generator of the type is known.
+     *
+     * @param type the type of generators
+     * @return the known generator of the type nearest to the player, or
+     *         {@code null} if no generator of the type is known
+     */
+    public Generator getNearestGenerator(GeneratorType type) {
+        updateSnapshot();
+        return nearestGenerators[type.ordinal()];
     }
 
     /**
@@ -308,6 +371,66 @@ public class GameManager {
         return readOnlyTraps;
     }
 
+    /**
+     * Returns the timeline of scheduled events in the current game.
+     *
+     * @return the timeline of scheduled events in the current game
+     */
+    public GameTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Updates information that is read from the scoreboard, like the
+     * timeline of scheduled events.
+     * <p>
+     * This method should be called on every client tick when client is in a
+     * Bed Wars game.
+     */
+    public void tick() {
+        timeline.update(Objects.requireNonNull(Minecraft.getInstance().level)
+                .getGameTime());
+        projection.update(forgeLevel,
+                timeline.getTier(GeneratorType.DIAMOND),
+                timeline.getTier(GeneratorType.EMERALD));
+    }
+
+    /**
+     * Returns the projection of resource income under the current resource
+     * generation speed level and generator tiers.
+     *
+     * @return the projection of resource income
+     */
+    public ResourceProjection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Returns the cheapest team upgrade the player's team does not have yet,
+     * or {@code null} if the team has every tracked upgrade.
+     *
+     * @return the cheapest team upgrade the player's team does not have, or
+     *         {@code null} if there is none
+     */
+    public TeamUpgrade getNextUpgrade() {
+        updateSnapshot();
+        return nextUpgrade;
+    }
+
+    /**
+     * Returns the projected number of seconds until the player can afford
+     * the {@linkplain #getNextUpgrade() cheapest missing team upgrade} with
+     * the diamonds in the inventory and those from one diamond generator, or
+     * {@code 0} if the player can already afford it.
+     *
+     * @return the projected number of seconds until the cheapest missing
+     *         team upgrade is affordable
+     */
+    public int getSecondsUntilNextUpgrade() {
+        updateSnapshot();
+        return secondsUntilNextUpgrade;
+    }
+
     /**
      * Updates upgrades the player's team has unlocked by analyzing chat
      * message client receives.
@@ -315,133 +438,130 @@ public class GameManager {
      * This method should be called when the client is in Bed Wars, and a
      * {@link ClientChatReceivedEvent} is fired.
      *
-     * @param event the event fired when client receives a chat message
-     */
-    public void update(ClientChatReceivedEvent event) {
-        String message = TextComponents.toFormattedText(
-                event.getMessage());
-        if (message.contains(HEAL_POOL_PROMPT)) {
-            healPool = true;
-        } else if (message.contains(DRAGON_BUFF_PROMPT)) {
-            dragonBuff = true;
-        } else if (message.contains(DEADSHOT_PROMPT)) {
-            // Parses the message to get the upgrade's level
-            int levelStart = message.indexOf(DEADSHOT_PROMPT) +
-                    DEADSHOT_PROMPT.length();
-            int levelEnd = message.indexOf("\u00A7r", levelStart);
-            String level = message.substring(levelStart, levelEnd);
-            switch (level) {
-                case "I":
-                    deadShotLevel = 1;
-                    break;
-                case "II":
-                    deadShotLevel = 2;
-                    break;
-                case "III":
-                    deadShotLevel = 3;
-                    break;
-                case "IV":
-                    deadShotLevel = 4;
-                    break;
-            }
-        } else {
-            for (ForgeLevel level : ForgeLevel.values()) {
-                if (message.contains(level.prompt)) {
-                    forgeLevel = level;
-                    return;
+     * @param chatMessage the decoded chat message client receives
+     */
+    public void update(ChatMessage chatMessage) {
+        ChatPrompt prompt =
+                chatMessage.getClassification().firstMatch(UPGRADE_PROMPT_TYPES);
+        if (prompt == null) {
+            return;
+        }
+        TrapType trapType = prompt.getTrapType();
+        switch (prompt.getType()) {
+            case HEAL_POOL:
+                healPool = true;
+                break;
+            case DRAGON_BUFF:
+                dragonBuff = true;
+                break;
+            case DEADSHOT:
+                int level = chatMessage.getClassification().getDeadShotLevel();
+                if (level > 0) {
+                    deadShotLevel = level;
                 }
-            }
-            for (TrapType trapType : TrapType.values()) {
+                break;
+            case FORGE_LEVEL:
+                forgeLevel = prompt.getForgeLevel();
+                break;
+            /*
+            If client temporarily leaves the current game, and a trap is set
+            off before the client rejoins, the local trap queue will not be
+            updated. Therefore, some while loops are used here to update the
+            local trap queue correctly after client rejoins a game.
+             */
+            case TRAP_PURCHASE:
                 /*
-                If client temporarily leaves the current game, and a trap is
-                set off before the client rejoins, the local trap queue will
-                not be updated. Therefore, some while loops are used here to
-                update the local trap queue correctly after client rejoins a
-                game.
+                If the local trap queue is full but new trap is purchased,
+                some traps must have been set off since client leaves
                  */
-                if (message.contains(trapType.purchasePrompt)) {
-                    /*
-                    If the local trap queue is full but new trap is purchased,
-                    some traps must have been set off since client leaves
-                     */
-                    while (trapQueue.size() >= MAX_TRAPS) {
-                        trapQueue.remove();
-                    }
-                    trapQueue.add(new CountedTrap(trapType, gameType.trapUses));
-                    return;
-                } else if (message.contains(trapType.setOffPrompt)) {
-                    /*
-                    Removes all traps at the front of the trap queue that have
-                    already been set off since client leaves
-                     */
-                    boolean consumed = false;
-                    while (!consumed && !trapQueue.isEmpty()) {
-                        CountedTrap firstInQueue = trapQueue.peek();
-                        TrapType firstTrapType = firstInQueue.getTrapType();
-                        if (firstTrapType == trapType) {
-                            firstInQueue.setOff();
-                            if (firstInQueue.hasUsedUp()) {
-                                trapQueue.remove();
-                            }
-                            consumed = true;
-                        } else {
+                while (trapQueue.size() >= MAX_TRAPS) {
+                    trapQueue.remove();
+                }
+                trapQueue.add(new CountedTrap(trapType, gameType.trapUses));
+                break;
+            case TRAP_SET_OFF:
+                /*
+                Removes all traps at the front of the trap queue that have
+                already been set off since client leaves
+                 */
+                boolean consumed = false;
+                while (!consumed && !trapQueue.isEmpty()) {
+                    CountedTrap firstInQueue = trapQueue.peek();
+                    TrapType firstTrapType = firstInQueue.getTrapType();
+                    if (firstTrapType == trapType) {
+                        firstInQueue.setOff();
+                        if (firstInQueue.hasUsedUp()) {
                             trapQueue.remove();
                         }
+                        consumed = true;
+                    } else {
+                        trapQueue.remove();
                     }
-                    return;
                 }
-            }
+                break;
         }
     }
 
     /**
-     * Returns position of a generator (an armor stand) whose display name
-     * contains a specified string, or {@code null} if such armor stand cannot
-     * be found.
-     *
-     * @param generatorText the text that would appear above the generator
-     * @return position of a generator (an armor stand) whose display name
-     *         contains a specified string, or {@code null} if such armor stand
-     *         cannot be found
-     */
-    private BlockPos findGenerator(String generatorText) {
-        Iterable<Entity> entities =
-                Objects.requireNonNull(Minecraft.getInstance().level)
-                        .entitiesForRendering();
-        for (Entity entity : entities) {
-            if (entity instanceof ArmorStandEntity) {
-                String name = TextComponents.toFormattedText(
-                        entity.getDisplayName());
-                if (name.contains(generatorText)) {
-                    return entity.blockPosition();
-                }
-            }
+     * Recomputes everything about generators returned by the read methods of
+     * this class, unless it has already been computed at the current game
+     * time.
+     * <p>
+     * The HUD reads these values on every frame, but they can only change
+     * once per tick, so this keeps the cost of the HUD independent of the
+     * frame rate.
+     */
+    private void updateSnapshot() {
+        long tick = Objects.requireNonNull(Minecraft.getInstance().level)
+                .getGameTime();
+        if (tick == snapshotTick) {
+            return;
+        }
+        snapshotTick = tick;
+        GeneratorIndex index = GeneratorIndex.getInstance();
+        BlockPos playerPos = Objects.requireNonNull(
+                Minecraft.getInstance().player).blockPosition();
+        for (GeneratorType type : GENERATOR_TYPES) {
+            int i = type.ordinal();
+            nextSpawnTimes[i] = index.getSoonestSpawnTime(type, tick);
+            generatorCounts[i] = index.getGenerators(type).size();
+            loadedGeneratorCounts[i] = index.getLoadedCount(type);
+            Generator nearest = index.getNearest(type, playerPos);
+            nearestGenerators[i] = nearest;
+            nearestGeneratorDistances[i] = nearest == null ? -1
+                    : (int) Math.sqrt(nearest.getPos().distSqr(playerPos));
         }
-        return null;
+        updateNextUpgrade();
     }
 
     /**
-     * Returns spawn time of the generator at given position, or {@code -1} if
-     * a generator cannot be found or read at that position.
-     *
-     * @param generatorPos the position of the generator
-     * @return spawn time of the generator at given position, or {@code -1} if
-     *         a generator cannot be found or read at that position
-     */
-    private int getSpawnTime(BlockPos generatorPos) {
-        Iterable<ArmorStandEntity> genEntities =
-                Objects.requireNonNull(Minecraft.getInstance().level)
-                        .getEntitiesOfClass(ArmorStandEntity.class,
-                                new AxisAlignedBB(generatorPos));
-        for (ArmorStandEntity genEntity : genEntities) {
-            ITextComponent floatTextComponent = genEntity.getDisplayName();
-            String formattedText =
-                    TextComponents.toFormattedText(floatTextComponent);
-            if (formattedText.contains(GENERATOR_TEXT)) {
-                return Integer.parseInt(floatTextComponent.getString()
-                        .replaceAll("[^0-9]", ""));
+     * Finds the cheapest team upgrade the player's team does not have, and
+     * projects when the player can afford it.
+     */
+    private void updateNextUpgrade() {
+        nextUpgrade = TeamUpgrade.nextForge(forgeLevel);
+        int price = nextUpgrade == null ? Integer.MAX_VALUE
+                : nextUpgrade.getPrice();
+        if (!healPool && TeamUpgrade.HEAL_POOL.getPrice() < price) {
+            nextUpgrade = TeamUpgrade.HEAL_POOL;
+            price = nextUpgrade.getPrice();
+        }
+        if (!dragonBuff && TeamUpgrade.DRAGON_BUFF.getPrice() < price) {
+            nextUpgrade = TeamUpgrade.DRAGON_BUFF;
+            price = nextUpgrade.getPrice();
+        }
+        if (trapQueue.size() < MAX_TRAPS) {
+            int trapPrice = TeamUpgrade.TRAP.getPrice() << trapQueue.size();
+            if (trapPrice < price) {
+                nextUpgrade = TeamUpgrade.TRAP;
+                price = trapPrice;
             }
         }
-        return -1;
+        if (nextUpgrade != null) {
+            int owned = Objects.requireNonNull(Minecraft.getInstance().player)
+                    .inventory.countItem(Items.DIAMOND);
+            secondsUntilNextUpgrade =
+                    projection.getSecondsUntilDiamonds(owned, price);
+        }
     }
 }
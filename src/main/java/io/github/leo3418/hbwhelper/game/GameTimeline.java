@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+import io.github.leo3418.hbwhelper.util.ScoreboardReader;
+import net.minecraft.util.text.TextFormatting;
+
+/**
+ * Tracks the scheduled events of a Bed Wars game and the tiers of its
+ * generators from the countdown on the scoreboard, such as
+ * "Diamond II in 5:00".
+ * <p>
+ * The scoreboard is read once per second, and the countdown line is only
+ * parsed when its text has changed. The deadline of the next event is stored
+ * as a game tick, so the remaining time can be computed on every frame
+ * without touching the scoreboard.
+ * <p>
+ * Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+public final class GameTimeline {
+    /**
+     * Number of game ticks in a second
+     */
+    private static final int TICKS_PER_SECOND = 20;
+
+    /**
+     * Number of game ticks between two reads of the scoreboard
+     */
+    private static final int READ_INTERVAL = TICKS_PER_SECOND;
+
+    /**
+     * Text between the name of an event and its countdown on the scoreboard
+     */
+    private static final String COUNTDOWN_SEPARATOR = " in ";
+
+    /**
+     * All event types, cached to avoid copying the array on every read
+     */
+    private static final GameEventType[] EVENT_TYPES = GameEventType.values();
+
+    /**
+     * Game tick at which the scoreboard should be read again
+     */
+    private long nextReadTick;
+
+    /**
+     * The countdown line last parsed, or {@code null} if none was found
+     */
+    private String lastLine;
+
+    /**
+     * The next scheduled event, or {@code null} if it is unknown
+     */
+    private GameEventType nextEvent;
+
+    /**
+     * Game tick at which {@link #nextEvent} happens
+     */
+    private long deadlineTick;
+
+    /**
+     * The most recent event that has been the next one, which determines the
+     * tiers of generators once no countdown is shown any more
+     */
+    private GameEventType lastKnownEvent;
+
+    /**
+     * Remaining seconds {@link #countdownText} was formatted for
+     */
+    private int countdownSeconds;
+
+    /**
+     * Remaining time until {@link #nextEvent} formatted as {@code m:ss}
+     */
+    private String countdownText;
+
+    /**
+     * Constructs a new {@code GameTimeline} object.
+     */
+    GameTimeline() {
+        this.nextReadTick = Long.MIN_VALUE;
+        this.countdownSeconds = -1;
+    }
+
+    /**
+     * Reads the scoreboard if it has not been read in the last second, and
+     * parses the countdown line if it has changed.
+     * <p>
+     * This method should be called on every client tick when client is in a
+     * Bed Wars game.
+     *
+     * @param tick the current game time of the client world
+     */
+    void update(long tick) {
+        // The game time goes backwards when the client changes worlds
+        if (tick < nextReadTick && nextReadTick - tick <= READ_INTERVAL) {
+            return;
+        }
+        nextReadTick = tick + READ_INTERVAL;
+        String line = null;
+        for (String candidate : ScoreboardReader.getLines()) {
+            String stripped = TextFormatting.stripFormatting(candidate);
+            if (stripped != null && parseEventType(stripped) != null) {
+                line = stripped;
+                break;
+            }
+        }
+        if (line == null) {
+            lastLine = null;
+            nextEvent = null;
+        } else if (!line.equals(lastLine)) {
+            lastLine = line;
+            parse(line, tick);
+        }
+    }
+
+    /**
+     * Returns the next scheduled event, or {@code null} if it is unknown.
+     *
+     * @return the next scheduled event, or {@code null} if it is unknown
+     */
+    public GameEventType getNextEvent() {
+        return nextEvent;
+    }
+
+    /**
+     * Returns the number of seconds until the next scheduled event at a game
+     * tick, or {@code -1} if the next event is unknown.
+     *
+     * @param tick the current game time of the client world
+     * @return the number of seconds until the next event, or {@code -1} if it
+     *         is unknown
+     */
+    public int getSecondsUntilNextEvent(long tick) {
+        if (nextEvent == null) {
+            return -1;
+        }
+        long remaining = Math.max(deadlineTick - tick, 0);
+        return (int) ((remaining + TICKS_PER_SECOND - 1) / TICKS_PER_SECOND);
+    }
+
+    /**
+     * Returns the remaining time until the next scheduled event at a game tick
+     * formatted as {@code m:ss}, or {@code null} if the next event is unknown.
+     * The text is only formatted again when the number of remaining seconds
+     * changes.
+     *
+     * @param tick the current game time of the client world
+     * @return the remaining time until the next event formatted as
+     *         {@code m:ss}, or {@code null} if it is unknown
+     */
+    public String getCountdownText(long tick) {
+        int seconds = getSecondsUntilNextEvent(tick);
+        if (seconds == -1) {
+            return null;
+        }
+        if (seconds != countdownSeconds) {
+            countdownSeconds = seconds;
+            int remainder = seconds % 60;
+            countdownText = seconds / 60 + (remainder < 10 ? ":0" : ":")
+                    + remainder;
+        }
+        return countdownText;
+    }
+
+    /**
+     * Returns the current tier of generators of a type, or {@code 1} if no
+     * countdown has been seen yet.
+     *
+     * @param type the type of generators
+     * @return the current tier of generators of the type
+     */
+    public int getTier(GeneratorType type) {
+        return lastKnownEvent == null ? 1 : lastKnownEvent.getTierBefore(type);
+    }
+
+    /**
+     * Parses a countdown line on the scoreboard.
+     *
+     * @param line the countdown line without formatting codes
+     * @param tick the game tick at which the line was read
+     */
+    private void parse(String line, long tick) {
+        GameEventType type = parseEventType(line);
+        int start = line.indexOf(COUNTDOWN_SEPARATOR)
+                + COUNTDOWN_SEPARATOR.length();
+        int seconds = parseCountdown(line, start);
+        if (type == null || seconds == -1) {
+            nextEvent = null;
+            return;
+        }
+        nextEvent = type;
+        lastKnownEvent = type;
+        deadlineTick = tick + (long) seconds * TICKS_PER_SECOND;
+    }
+
+    /**
+     * Returns the type of the event a countdown line is for, or {@code null}
+     * if the line is not a countdown of a known event.
+     *
+     * @param line the line without formatting codes
+     * @return the type of the event the line is for, or {@code null} if the
+     *         line is not a countdown of a known event
+     */
+    private static GameEventType parseEventType(String line) {
+        for (GameEventType type : EVENT_TYPES) {
+            String name = type.scoreboardName;
+            if (line.regionMatches(true, 0, name, 0, name.length())
+                    && line.startsWith(COUNTDOWN_SEPARATOR, name.length())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a countdown in the form of {@code m:ss} at a position of a line,
+     * or returns {@code -1} if there is no valid countdown.
+     *
+     * @param line the line
+     * @param start the position where the countdown starts
+     * @return the countdown in seconds, or {@code -1} if there is no valid
+     *         countdown
+     */
+    private static int parseCountdown(String line, int start) {
+        int minutes = 0;
+        int seconds = 0;
+        boolean colon = false;
+        int digits = 0;
+        for (int i = start; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (colon) {
+                    seconds = seconds * 10 + (c - '0');
+                } else {
+                    minutes = minutes * 10 + (c - '0');
+                }
+                digits++;
+            } else if (c == ':' && !colon && digits > 0) {
+                colon = true;
+                digits = 0;
+            } else {
+                break;
+            }
+        }
+        if (!colon || digits != 2 || seconds >= 60) {
+            return -1;
+        }
+        return minutes * 60 + seconds;
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+import io.github.leo3418.hbwhelper.util.DigitExtractor;
+import io.github.leo3418.hbwhelper.util.TextComponents;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.item.ArmorStandEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.ITextComponent;
+
+import java.util.Objects;
+
+/**
+ * A diamond or emerald generator on the map, which is remembered once its
+ * hologram has been seen, even after the hologram is unloaded.
+ * <p>
+ * Spawn time of a generator can only be read while the hologram is loaded,
+ * in which case it is {@linkplain GeneratorCountdown predicted} between reads.
+ *
+ * @author Leo
+ */
+public final class Generator {
+    /*
+     * Note: Some of the prompts below in 1.14 and above differ from their
+     * counterpart in older Minecraft client versions.
+     */
+
+    /**
+     * Text that only appears in the line showing spawn time above a generator
+     */
+    private static final String GENERATOR_TEXT = "\u00A7eSpawns in \u00A7r\u00A7c";
+
+    /**
+     * The reusable extractor of spawn time from the line showing it; all
+     * generators are read on the client thread
+     */
+    private static final DigitExtractor SPAWN_TIME_EXTRACTOR =
+            new DigitExtractor();
+
+    /**
+     * Type of this generator
+     */
+    private final GeneratorType type;
+
+    /**
+     * Position of the armor stand showing the name of this generator
+     */
+    private final BlockPos pos;
+
+    /**
+     * Model of spawn time of this generator
+     */
+    private final GeneratorCountdown countdown;
+
+    /**
+     * Statistics of resets of this generator's countdown
+     */
+    private final GeneratorStats stats;
+
+    /**
+     * The loaded armor stand showing the name of this generator, or
+     * {@code null} if it is not loaded
+     */
+    private ArmorStandEntity nameStand;
+
+    /**
+     * Number of times the hologram of this generator has been searched in
+     * the client world
+     */
+    private int scans;
+
+    /**
+     * Number of times the hologram of this generator has been searched in
+     * the client world without finding the line showing spawn time
+     */
+    private int failedScans;
+
+    /**
+     * The armor stand showing spawn time of this generator when it was last
+     * read, or {@code null} if it has not been found
+     */
+    private ArmorStandEntity timerStand;
+
+    /**
+     * Name of {@link #timerStand} when it was last parsed
+     */
+    private ITextComponent timerName;
+
+    /**
+     * Spawn time parsed from {@link #timerName}
+     */
+    private int timerSpawnTime;
+
+    /**
+     * Number of times the line showing spawn time has been parsed because it
+     * changed
+     */
+    private int reparses;
+
+    /**
+     * Number of times the line showing spawn time has not been parsed again
+     * because it did not change since it was last parsed
+     */
+    private int reparsesAvoided;
+
+    /**
+     * Constructs a new {@code Generator} object.
+     *
+     * @param type type of the generator
+     * @param pos position of the armor stand showing the name of the
+     *         generator
+     */
+    Generator(GeneratorType type, BlockPos pos) {
+        this.type = type;
+        this.pos = pos;
+        this.countdown = new GeneratorCountdown();
+        this.stats = new GeneratorStats();
+    }
+
+    /**
+     * Returns type of this generator.
+     *
+     * @return type of this generator
+     */
+    public GeneratorType getType() {
+        return type;
+    }
+
+    /**
+     * Returns position of this generator's hologram.
+     *
+     * @return position of this generator's hologram
+     */
+    public BlockPos getPos() {
+        return pos;
+    }
+
+    /**
+     * Returns whether this generator's hologram is loaded, so its spawn time
+     * can be read.
+     *
+     * @return whether this generator's hologram is loaded
+     */
+    public boolean isLoaded() {
+        return nameStand != null;
+    }
+
+    /**
+     * Returns spawn time of the next resource from this generator at a game
+     * tick, or {@code -1} if the generator cannot be read.
+     *
+     * @param tick the game tick, which should be the current game time of the
+     *         client world
+     * @return spawn time of the next resource from this generator, or
+     *         {@code -1} if the generator cannot be read
+     */
+    public int getSpawnTime(long tick) {
+        if (nameStand == null) {
+            return -1;
+        }
+        if (countdown.needsRead(tick)) {
+            int lastValue = countdown.getLastValue();
+            int value = readSpawnTime();
+            /*
+            The spawn time only goes up when a resource has been spawned.
+            Comparing with the value read last time instead of the prediction
+            ignores hologram updates that arrive late.
+             */
+            if (lastValue != -1 && value > lastValue) {
+                stats.recordReset(tick, value);
+            }
+            countdown.update(tick, value);
+        }
+        return countdown.predict(tick);
+    }
+
+    /**
+     * Returns the statistics of resets of this generator's countdown.
+     *
+     * @return the statistics of resets of this generator's countdown
+     */
+    public GeneratorStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the number of times the hologram of this generator has been
+     * searched in the client world.
+     *
+     * @return the number of times the hologram of this generator has been
+     *         searched
+     */
+    public int getScans() {
+        return scans;
+    }
+
+    /**
+     * Returns the number of times the hologram of this generator has been
+     * searched in the client world without finding the line showing spawn
+     * time.
+     *
+     * @return the number of failed searches of the hologram of this generator
+     */
+    public int getFailedScans() {
+        return failedScans;
+    }
+
+    /**
+     * Returns the number of times the line showing spawn time of this
+     * generator has been parsed because it changed.
+     *
+     * @return the number of times the line showing spawn time has been parsed
+     *         because it changed
+     */
+    public int getReparses() {
+        return reparses;
+    }
+
+    /**
+     * Returns the number of times the line showing spawn time of this
+     * generator has not been parsed again because it did not change.
+     *
+     * @return the number of times parsing the line showing spawn time has
+     *         been avoided
+     */
+    public int getReparsesAvoided() {
+        return reparsesAvoided;
+    }
+
+    /**
+     * Reads the hologram of this generator again at the next game tick if it
+     * could not be read last time. This method should be called when an
+     * entity or a chunk that may contain the line showing spawn time is
+     * loaded.
+     */
+    void retry() {
+        countdown.retry();
+    }
+
+    /**
+     * Returns the loaded armor stand showing the name of this generator, or
+     * {@code null} if it is not loaded.
+     *
+     * @return the armor stand showing the name of this generator, or
+     *         {@code null} if it is not loaded
+     */
+    ArmorStandEntity getNameStand() {
+        return nameStand;
+    }
+
+    /**
+     * Changes the loaded armor stand showing the name of this generator.
+     *
+     * @param nameStand the armor stand, or {@code null} if it is unloaded
+     */
+    void setNameStand(ArmorStandEntity nameStand) {
+        if (nameStand != this.nameStand) {
+            this.nameStand = nameStand;
+            timerStand = null;
+            timerName = null;
+            countdown.reset();
+        }
+    }
+
+    /**
+     * Reads spawn time of this generator from its hologram, or returns
+     * {@code -1} if the hologram cannot be found or read.
+     * <p>
+     * The armor stand showing spawn time is remembered once found, and its
+     * name is only parsed again when the name has been replaced, which
+     * Minecraft does once a second. The hologram is only searched for in the
+     * client world if that armor stand is gone or no longer shows spawn time.
+     *
+     * @return spawn time of this generator, or {@code -1} if the hologram
+     *         cannot be found or read
+     */
+    private int readSpawnTime() {
+        if (timerStand != null && timerStand.isAlive()) {
+            ITextComponent name = timerStand.getCustomName();
+            if (name == timerName) {
+                reparsesAvoided++;
+                return timerSpawnTime;
+            }
+            reparses++;
+            int spawnTime = parseSpawnTime(name);
+            if (spawnTime != -1) {
+                timerName = name;
+                timerSpawnTime = spawnTime;
+                return spawnTime;
+            }
+        }
+        timerStand = null;
+        timerName = null;
+        scans++;
+        Iterable<ArmorStandEntity> genEntities =
+                Objects.requireNonNull(Minecraft.getInstance().level)
+                        .getEntitiesOfClass(ArmorStandEntity.class,
+                                new AxisAlignedBB(pos));
+        for (ArmorStandEntity genEntity : genEntities) {
+            ITextComponent name = genEntity.getCustomName();
+            int spawnTime = parseSpawnTime(name);
+            if (spawnTime != -1) {
+                timerStand = genEntity;
+                timerName = name;
+                timerSpawnTime = spawnTime;
+                return spawnTime;
+            }
+        }
+        failedScans++;
+        return -1;
+    }
+
+    /**
+     * Parses spawn time from the name of an armor stand, or returns
+     * {@code -1} if the name does not show spawn time of a generator.
+     *
+     * @param name the name of the armor stand, or {@code null} if it has no
+     *         name
+     * @return spawn time shown in the name, or {@code -1} if the name does not
+     *         show spawn time
+     */
+    private static int parseSpawnTime(ITextComponent name) {
+        if (name == null || !contains(TextComponents.formattedTextView(name),
+                GENERATOR_TEXT)) {
+            return -1;
+        }
+        int spawnTime = SPAWN_TIME_EXTRACTOR.extract(name);
+        return spawnTime == DigitExtractor.NO_NUMBER ? -1 : spawnTime;
+    }
+
+    /**
+     * Returns whether a {@link CharSequence} contains a {@link String},
+     * without converting the {@code CharSequence} to a {@code String}.
+     *
+     * @param text the {@code CharSequence}
+     * @param target the {@code String} to be searched for
+     * @return whether {@code text} contains {@code target}
+     */
+    private static boolean contains(CharSequence text, String target) {
+        int last = text.length() - target.length();
+        for (int i = 0; i <= last; i++) {
+            int j = 0;
+            while (j < target.length()
+                    && text.charAt(i + j) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+/**
+ * Predicts the spawn time shown in a generator's hologram from the game tick
+ * counter, so the hologram only needs to be read about once per second
+ * instead of on every frame.
+ * <p>
+ * The spawn time decreases by one every second, i.e. every
+ * {@value #TICKS_PER_SECOND} game ticks, but the tick within a second at
+ * which it decreases is unknown when the hologram is read for the first time.
+ * The hologram is therefore read on every tick until its value changes, which
+ * marks a second boundary. From then on, the value is extrapolated, and the
+ * hologram is only read right after each predicted second boundary to check
+ * the prediction. If the hologram still shows the value read last time, which
+ * happens when its update arrives late, it is read again on the next tick.
+ * Otherwise, if the value read differs from the prediction, e.g. because the
+ * generator has been reset or another generator is being read, the boundary
+ * is searched for again.
+ * <p>
+ * While the hologram cannot be read at all, e.g. because the line showing
+ * spawn time has not been loaded yet, the delay between reads doubles after
+ * every failed read up to {@value #MAX_RETRY_DELAY} ticks. The owner of this
+ * object may {@linkplain #retry() ask for an immediate read} when something
+ * that may have made the hologram readable happens.
+ * <p>
+ * Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+final class GeneratorCountdown {
+    /**
+     * Number of game ticks in a second
+     */
+    private static final int TICKS_PER_SECOND = 20;
+
+    /**
+     * Maximum number of game ticks between two reads of a hologram that
+     * cannot be read
+     */
+    private static final int MAX_RETRY_DELAY = 64;
+
+    /**
+     * Whether a spawn time has been read
+     */
+    private boolean anchored;
+
+    /**
+     * Game tick at which {@link #anchorValue} was read
+     */
+    private long anchorTick;
+
+    /**
+     * The spawn time read at {@link #anchorTick}
+     */
+    private int anchorValue;
+
+    /**
+     * The spawn time read last time, or {@code -1} if it could not be read
+     */
+    private int lastValue;
+
+    /**
+     * Whether {@link #anchorTick} is known to be a second boundary, in which
+     * case the spawn time can be extrapolated
+     */
+    private boolean onBoundary;
+
+    /**
+     * Game tick at or after which the hologram should be read again
+     */
+    private long nextReadTick;
+
+    /**
+     * Number of game ticks to wait after the next failed read
+     */
+    private int retryDelay;
+
+    /**
+     * Constructs a new {@code GeneratorCountdown} object.
+     */
+    GeneratorCountdown() {
+        reset();
+    }
+
+    /**
+     * Returns whether the hologram should be read at a game tick.
+     *
+     * @param tick the game tick
+     * @return whether the hologram should be read at the game tick
+     */
+    boolean needsRead(long tick) {
+        // The game time goes backwards when the client changes worlds
+        return tick >= nextReadTick || (anchored && tick < anchorTick)
+                || nextReadTick - tick > MAX_RETRY_DELAY;
+    }
+
+    /**
+     * Updates this model with the spawn time read from the hologram at a
+     * game tick.
+     *
+     * @param tick the game tick
+     * @param value the spawn time read, or {@code -1} if no generator could
+     *         be read
+     */
+    void update(long tick, int value) {
+        int previousValue = lastValue;
+        lastValue = value;
+        if (value == -1) {
+            anchored = false;
+            nextReadTick = tick + retryDelay;
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+        } else if (!anchored || tick < anchorTick) {
+            anchor(tick, value, false);
+        } else if (onBoundary) {
+            if (value == predict(tick)) {
+                long elapsedSeconds = (tick - anchorTick) / TICKS_PER_SECOND;
+                // One tick after the boundary to tolerate network jitter
+                nextReadTick = anchorTick
+                        + (elapsedSeconds + 1) * TICKS_PER_SECOND + 1;
+            } else if (value == previousValue
+                    && value == predict(tick) + 1) {
+                // The update of the hologram is late, so keep the boundary
+                nextReadTick = tick + 1;
+            } else {
+                anchor(tick, value, false);
+            }
+        } else if (value != anchorValue) {
+            // The value has just changed, so a second boundary has passed
+            anchor(tick, value, true);
+        } else {
+            nextReadTick = tick + 1;
+        }
+    }
+
+    /**
+     * Returns the predicted spawn time at a game tick, or {@code -1} if no
+     * generator could be read.
+     *
+     * @param tick the game tick
+     * @return the predicted spawn time at the game tick, or {@code -1} if no
+     *         generator could be read
+     */
+    int predict(long tick) {
+        if (!anchored) {
+            return -1;
+        }
+        if (!onBoundary) {
+            return anchorValue;
+        }
+        long elapsedSeconds = (tick - anchorTick) / TICKS_PER_SECOND;
+        return (int) Math.max(anchorValue - elapsedSeconds, 0);
+    }
+
+    /**
+     * Returns the spawn time read from the hologram last time, or {@code -1}
+     * if it could not be read or nothing has been read.
+     *
+     * @return the spawn time read last time, or {@code -1} if it could not be
+     *         read
+     */
+    int getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * Forgets everything read so far, so the hologram is read again at the
+     * next game tick.
+     */
+    void reset() {
+        anchored = false;
+        lastValue = -1;
+        nextReadTick = Long.MIN_VALUE;
+        retryDelay = 1;
+    }
+
+    /**
+     * Cancels the delay before the next read if the hologram could not be
+     * read last time, so it is read again at the next game tick.
+     */
+    void retry() {
+        if (!anchored) {
+            reset();
+        }
+    }
+
+    /**
+     * Starts extrapolating from a spawn time read at a game tick.
+     *
+     * @param tick the game tick
+     * @param value the spawn time read
+     * @param onBoundary whether the game tick is known to be a second
+     *         boundary
+     */
+    private void anchor(long tick, int value, boolean onBoundary) {
+        this.anchored = true;
+        this.anchorTick = tick;
+        this.anchorValue = value;
+        this.onBoundary = onBoundary;
+        this.retryDelay = 1;
+        this.nextReadTick = onBoundary ? tick + TICKS_PER_SECOND + 1 : tick + 1;
+    }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+import io.github.leo3418.hbwhelper.util.TextRuns;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.ArmorStandEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.text.ITextComponent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+
+/**
+ * Keeps a live index of all diamond and emerald {@linkplain Generator
+ * generators} in the client world, so they can be looked up without scanning
+ * all entities.
+ * <p>
+ * The name of a generator is shown by an armor stand hologram. Every armor
+ * stand is tracked from the time it joins the client world to the time it
+ * leaves, and its name is only classified when it joins the world or gets
+ * renamed. Because Minecraft does not fire an event when an entity is
+ * renamed, the name of each tracked armor stand is compared by reference on
+ * every client tick, which does not involve any string work.
+ * <p>
+ * A generator is remembered from the time its hologram is first seen until
+ * the client world is unloaded, even if the hologram is unloaded in between.
+ * Generators of each type are also indexed by the chunk they are in, so the
+ * nearest generator to a position is found by searching chunks outwards from
+ * the position rather than by checking every generator.
+ * <p>
+ * The line showing spawn time of a generator is a separate armor stand that
+ * is searched for near the generator. When it cannot be found, the search is
+ * retried with an exponential backoff, and it is retried immediately whenever
+ * the chunk of the generator is loaded or an armor stand appears at the
+ * generator. The number of searches in the current world is kept for
+ * diagnostics.
+ * <p>
+ * This is a Singleton class. Only one instance of this class may be created
+ * per runtime.
+ *
+ * @author Leo
+ */
+public class GeneratorIndex {
+    /**
+     * The only instance of this class
+     */
+    private static final GeneratorIndex INSTANCE = new GeneratorIndex();
+
+    /**
+     * The logger of this class
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * All armor stands in the client world, keyed by entity ID
+     */
+    private final Int2ObjectOpenHashMap<TrackedStand> armorStands;
+
+    /**
+     * All known generators of each type, in the order they were found
+     */
+    private final Map<GeneratorType, List<Generator>> generators;
+
+    /**
+     * Cache of unmodifiable views of all known generators of each type
+     */
+    private final Map<GeneratorType, List<Generator>> readOnlyGenerators;
+
+    /**
+     * Known generators of each type, keyed by {@linkplain ChunkPos#asLong
+     * position of the chunk} they are in
+     */
+    private final Map<GeneratorType, Long2ObjectMap<List<Generator>>>
+            generatorsByChunk;
+
+    /**
+     * Bounds of the chunks known generators of each type are in, as the
+     * minimum chunk x- and z-coordinates followed by the maximum ones
+     */
+    private final Map<GeneratorType, int[]> chunkBounds;
+
+    /**
+     * The reusable {@link TextRuns} names are decoded into
+     */
+    private final TextRuns runs;
+
+    /**
+     * Implementation of Singleton design pattern, which allows only one
+     * instance of this class to be created.
+     */
+    private GeneratorIndex() {
+        armorStands = new Int2ObjectOpenHashMap<>();
+        generators = new EnumMap<>(GeneratorType.class);
+        readOnlyGenerators = new EnumMap<>(GeneratorType.class);
+        generatorsByChunk = new EnumMap<>(GeneratorType.class);
+        chunkBounds = new EnumMap<>(GeneratorType.class);
+        for (GeneratorType type : GeneratorType.values()) {
+            List<Generator> all = new ArrayList<>();
+            generators.put(type, all);
+            readOnlyGenerators.put(type, Collections.unmodifiableList(all));
+            generatorsByChunk.put(type, new Long2ObjectOpenHashMap<>());
+            chunkBounds.put(type, new int[4]);
+        }
+        runs = new TextRuns();
+    }
+
+    /**
+     * Returns the instance of this class.
+     *
+     * @return the instance of this class
+     */
+    public static GeneratorIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns an unmodifiable view of all known generators of a type, in the
+     * order they were found.
+     *
+     * @param type the type of generators
+     * @return an unmodifiable view of all known generators of the type
+     */
+    public List<Generator> getGenerators(GeneratorType type) {
+        return readOnlyGenerators.get(type);
+    }
+
+    /**
+     * Returns the number of generators of a type whose holograms are loaded.
+     *
+     * @param type the type of generators
+     * @return the number of generators of the type whose holograms are loaded
+     */
+    public int getLoadedCount(GeneratorType type) {
+        int count = 0;
+        for (Generator generator : generators.get(type)) {
+            if (generator.isLoaded()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the shortest spawn time among all generators of a type whose
+     * holograms are loaded, or {@code -1} if no such generator can be read.
+     *
+     * @param type the type of generators
+     * @param tick the current game time of the client world
+     * @return the shortest spawn time among generators of the type, or
+     *         {@code -1} if no generator of the type can be read
+     */
+    public int getSoonestSpawnTime(GeneratorType type, long tick) {
+        int soonest = -1;
+        for (Generator generator : generators.get(type)) {
+            int time = generator.getSpawnTime(tick);
+            if (time != -1 && (soonest == -1 || time < soonest)) {
+                soonest = time;
+            }
+        }
+        return soonest;
+    }
+
+    /**
+     * Returns the number of times holograms of known generators have been
+     * searched in the client world since it was loaded.
+     *
+     * @return the number of searches for generator holograms in the client
+     *         world
+     */
+    public int getScans() {
+        int scans = 0;
+        for (List<Generator> ofType : generators.values()) {
+            for (Generator generator : ofType) {
+                scans += generator.getScans();
+            }
+        }
+        return scans;
+    }
+
+    /**
+     * Returns the number of times holograms of known generators have been
+     * searched in the client world since it was loaded without finding the
+     * line showing spawn time.
+     *
+     * @return the number of failed searches for generator holograms in the
+     *         client world
+     */
+    public int getFailedScans() {
+        int failedScans = 0;
+        for (List<Generator> ofType : generators.values()) {
+            for (Generator generator : ofType) {
+                failedScans += generator.getFailedScans();
+            }
+        }
+        return failedScans;
+    }
+
+    /**
+     * Returns the number of times the line showing spawn time of known
+     * generators has been parsed because it changed, since the client world
+     * was loaded.
+     *
+     * @return the number of times the line showing spawn time of generators
+     *         has been parsed because it changed
+     */
+    public int getReparses() {
+        int reparses = 0;
+        for (List<Generator> ofType : generators.values()) {
+            for (Generator generator : ofType) {
+                reparses += generator.getReparses();
+            }
+        }
+        return reparses;
+    }
+
+    /**
+     * Returns the number of times parsing the line showing spawn time of
+     * known generators has been avoided because it did not change, since the
+     * client world was loaded.
+     *
+     * @return the number of times parsing the line showing spawn time of
+     *         generators has been avoided
+     */
+    public int getReparsesAvoided() {
+        int reparsesAvoided = 0;
+        for (List<Generator> ofType : generators.values()) {
+            for (Generator generator : ofType) {
+                reparsesAvoided += generator.getReparsesAvoided();
+            }
+        }
+        return reparsesAvoided;
+    }
+
+    /**
+     * Returns the known generator of a type nearest to a position, or
+     * {@code null} if no generator of the type is known.
+     * <p>
+     * Chunks are searched in square rings around the chunk of the position,
+     * and the search stops as soon as no generator in the remaining rings can
+     * be nearer than the nearest one found.
+     *
+     * @param type the type of generators
+     * @param from the position
+     * @return the known generator of the type nearest to the position, or
+     *         {@code null} if no generator of the type is known
+     */
+    public Generator getNearest(GeneratorType type, BlockPos from) {
+        Long2ObjectMap<List<Generator>> byChunk = generatorsByChunk.get(type);
+        if (byChunk.isEmpty()) {
+            return null;
+        }
+        int centerX = from.getX() >> 4;
+        int centerZ = from.getZ() >> 4;
+        int[] bounds = chunkBounds.get(type);
+        // No known generator is beyond the ring touching the farthest bound
+        int maxRing = Math.max(0, Math.max(
+                Math.max(centerX - bounds[0], bounds[2] - centerX),
+                Math.max(centerZ - bounds[1], bounds[3] - centerZ)));
+        Generator nearest = null;
+        double nearestDistSq = Double.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dx = -ring; dx <= ring; dx++) {
+                // Only the perimeter of the ring is visited
+                int step = (dx == -ring || dx == ring) ? 1 : 2 * ring;
+                for (int dz = -ring; dz <= ring; dz += step) {
+                    List<Generator> inChunk = byChunk.get(
+                            ChunkPos.asLong(centerX + dx, centerZ + dz));
+                    if (inChunk != null) {
+                        for (Generator generator : inChunk) {
+                            double distSq = generator.getPos().distSqr(from);
+                            if (distSq < nearestDistSq) {
+                                nearest = generator;
+                                nearestDistSq = distSq;
+                            }
+                        }
+                    }
+                }
+            }
+            // Any generator in farther rings is at least this far away
+            double minFartherDist = ring * 16.0;
+            if (nearest != null
+                    && nearestDistSq <= minFartherDist * minFartherDist) {
+                break;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Starts tracking an entity if it is an armor stand in the client world.
+     * <p>
+     * This method should be called whenever an {@link EntityJoinWorldEvent}
+     * is fired.
+     *
+     * @param event the event fired when an entity joins a world
+     */
+    public void update(EntityJoinWorldEvent event) {
+        Entity entity = event.getEntity();
+        if (event.getWorld().isClientSide()
+                && entity instanceof ArmorStandEntity) {
+            TrackedStand stand = new TrackedStand((ArmorStandEntity) entity);
+            TrackedStand replaced = armorStands.put(entity.getId(), stand);
+            if (replaced != null) {
+                unindex(replaced);
+            }
+            classify(stand);
+        }
+    }
+
+    /**
+     * Stops tracking an entity if it is a tracked armor stand.
+     * <p>
+     * This method should be called whenever an {@link EntityLeaveWorldEvent}
+     * is fired.
+     *
+     * @param event the event fired when an entity leaves a world
+     */
+    public void update(EntityLeaveWorldEvent event) {
+        Entity entity = event.getEntity();
+        if (event.getWorld().isClientSide()
+                && entity instanceof ArmorStandEntity) {
+            TrackedStand stand = armorStands.get(entity.getId());
+            // The ID might have been reused by an entity that joined later
+            if (stand != null && stand.entity == entity) {
+                armorStands.remove(entity.getId());
+                unindex(stand);
+            }
+        }
+    }
+
+    /**
+     * Retries reading the holograms of known generators in a chunk if it is
+     * a chunk of the client world.
+     * <p>
+     * This method should be called whenever a {@link ChunkEvent.Load} is
+     * fired.
+     *
+     * @param event the event fired when a chunk is loaded
+     */
+    public void update(ChunkEvent.Load event) {
+        if (event.getWorld() != null && event.getWorld().isClientSide()) {
+            long chunk = event.getChunk().getPos().toLong();
+            for (Long2ObjectMap<List<Generator>> byChunk
+                    : generatorsByChunk.values()) {
+                List<Generator> inChunk = byChunk.get(chunk);
+                if (inChunk != null) {
+                    for (Generator generator : inChunk) {
+                        generator.retry();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reclassifies every tracked armor stand that has been renamed since it
+     * was last classified.
+     * <p>
+     * This method should be called whenever a
+     * {@link net.minecraftforge.event.TickEvent.ClientTickEvent
+     * ClientTickEvent} is fired.
+     */
+    public void detectRenames() {
+        for (TrackedStand stand : armorStands.values()) {
+            if (stand.entity.getCustomName() != stand.name) {
+                classify(stand);
+            }
+        }
+    }
+
+    /**
+     * Forgets all tracked armor stands and known generators. This method
+     * should be called when the client world is unloaded.
+     */
+    public void clear() {
+        int scans = getScans();
+        if (scans > 0) {
+            LOGGER.debug("Searched generator holograms {} times in the last "
+                    + "world ({} failed)", scans, getFailedScans());
+        }
+        armorStands.clear();
+        for (GeneratorType type : GeneratorType.values()) {
+            generators.get(type).clear();
+            generatorsByChunk.get(type).clear();
+        }
+    }
+
+    /**
+     * Classifies the current name of a tracked armor stand, and updates the
+     * generator positions accordingly.
+     *
+     * @param stand the tracked armor stand
+     */
+    private void classify(TrackedStand stand) {
+        ITextComponent name = stand.entity.getCustomName();
+        GeneratorType type = null;
+        if (name != null) {
+            runs.readFrom(name);
+            for (GeneratorType candidate : GeneratorType.values()) {
+                if (candidate.namePattern.matches(runs)) {
+                    type = candidate;
+                    break;
+                }
+            }
+            runs.clear();
+        }
+        unindex(stand);
+        stand.name = name;
+        if (type != null) {
+            Generator generator =
+                    getOrAdd(type, stand.entity.blockPosition());
+            generator.setNameStand(stand.entity);
+            stand.generator = generator;
+        } else if (name != null) {
+            retryAt(stand.entity.blockPosition());
+        }
+    }
+
+    /**
+     * Retries reading the holograms of known generators whose name is shown
+     * in the same block column as a position, because an armor stand there
+     * may be the line showing spawn time.
+     *
+     * @param pos the position
+     */
+    private void retryAt(BlockPos pos) {
+        long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        for (Long2ObjectMap<List<Generator>> byChunk
+                : generatorsByChunk.values()) {
+            List<Generator> inChunk = byChunk.get(chunk);
+            if (inChunk != null) {
+                for (Generator generator : inChunk) {
+                    BlockPos generatorPos = generator.getPos();
+                    if (generatorPos.getX() == pos.getX()
+                            && generatorPos.getZ() == pos.getZ()) {
+                        generator.retry();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the generator whose name a tracked armor stand shows as unloaded
+     * if the armor stand shows the name of a generator.
+     *
+     * @param stand the tracked armor stand
+     */
+    private void unindex(TrackedStand stand) {
+        if (stand.generator != null) {
+            if (stand.generator.getNameStand() == stand.entity) {
+                stand.generator.setNameStand(null);
+            }
+            stand.generator = null;
+        }
+    }
+
+    /**
+     * Returns the known generator of a type at a position, adding a new one
+     * if there is none.
+     *
+     * @param type the type of the generator
+     * @param pos the position of the generator's hologram
+     * @return the generator of the type at the position
+     */
+    private Generator getOrAdd(GeneratorType type, BlockPos pos) {
+        long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        Long2ObjectMap<List<Generator>> byChunk = generatorsByChunk.get(type);
+        List<Generator> inChunk = byChunk.get(chunk);
+        if (inChunk == null) {
+            inChunk = new ArrayList<>(1);
+            byChunk.put(chunk, inChunk);
+        }
+        for (Generator generator : inChunk) {
+            if (generator.getPos().equals(pos)) {
+                return generator;
+            }
+        }
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        int[] bounds = chunkBounds.get(type);
+        // The bounds of the previous world are discarded with its generators
+        if (generators.get(type).isEmpty()) {
+            bounds[0] = bounds[2] = chunkX;
+            bounds[1] = bounds[3] = chunkZ;
+        } else {
+            bounds[0] = Math.min(bounds[0], chunkX);
+            bounds[1] = Math.min(bounds[1], chunkZ);
+            bounds[2] = Math.max(bounds[2], chunkX);
+            bounds[3] = Math.max(bounds[3], chunkZ);
+        }
+        Generator generator = new Generator(type, pos);
+        inChunk.add(generator);
+        generators.get(type).add(generator);
+        return generator;
+    }
+
+    /**
+     * An armor stand being tracked, together with its name when it was last
+     * classified and the result of the classification.
+     */
+    private static final class TrackedStand {
+        /**
+         * The armor stand
+         */
+        private final ArmorStandEntity entity;
+
+        /**
+         * Name of the armor stand when it was last classified
+         */
+        private ITextComponent name;
+
+        /**
+         * The generator the armor stand shows the name of, or {@code null} if
+         * it is not a generator
+         */
+        private Generator generator;
+
+        /**
+         * Constructs a new {@code TrackedStand} object.
+         *
+         * @param entity the armor stand
+         */
+        private TrackedStand(ArmorStandEntity entity) {
+            this.entity = entity;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+/**
+ * Statistics of the resets of a generator's countdown, i.e. the times at
+ * which it spawned a resource, for comparing the real spawn cadence with the
+ * displayed spawn time.
+ * <p>
+ * The most recent {@value #CAPACITY} resets are kept in a ring buffer of
+ * primitive arrays, so recording a reset never allocates. Along with the game
+ * tick of each reset, the spawn time read right after it is kept as the
+ * length of the cycle it started, and a change of that length is counted as
+ * a tier transition of the generator.
+ * <p>
+ * Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+public final class GeneratorStats {
+    /**
+     * Number of game ticks in a second
+     */
+    private static final int TICKS_PER_SECOND = 20;
+
+    /**
+     * Maximum number of resets kept
+     */
+    private static final int CAPACITY = 16;
+
+    /**
+     * Game ticks of the kept resets, in a ring buffer starting at
+     * {@link #head}
+     */
+    private final long[] resetTicks;
+
+    /**
+     * Length in seconds of the cycle started by each kept reset, in a ring
+     * buffer starting at {@link #head}
+     */
+    private final int[] cycleLengths;
+
+    /**
+     * Index of the oldest kept reset
+     */
+    private int head;
+
+    /**
+     * Number of kept resets
+     */
+    private int size;
+
+    /**
+     * Total number of resets recorded
+     */
+    private int resetCount;
+
+    /**
+     * Number of times the length of the cycle has changed
+     */
+    private int tierTransitions;
+
+    /**
+     * Game tick of the latest change of the length of the cycle, or
+     * {@code -1} if it has never changed
+     */
+    private long lastTransitionTick;
+
+    /**
+     * Constructs a new {@code GeneratorStats} object.
+     */
+    GeneratorStats() {
+        this.resetTicks = new long[CAPACITY];
+        this.cycleLengths = new int[CAPACITY];
+        this.lastTransitionTick = -1;
+    }
+
+    /**
+     * Records a reset of the countdown.
+     *
+     * @param tick the game tick at which the reset was seen
+     * @param cycleLength the spawn time read right after the reset, in
+     *         seconds
+     */
+    void recordReset(long tick, int cycleLength) {
+        if (size > 0) {
+            int latest = (head + size - 1) % CAPACITY;
+            if (tick < resetTicks[latest]) {
+                // The game time goes backwards when the client changes worlds
+                clear();
+            } else if (cycleLengths[latest] != cycleLength) {
+                tierTransitions++;
+                lastTransitionTick = tick;
+            }
+        }
+        if (size < CAPACITY) {
+            int tail = (head + size) % CAPACITY;
+            resetTicks[tail] = tick;
+            cycleLengths[tail] = cycleLength;
+            size++;
+        } else {
+            resetTicks[head] = tick;
+            cycleLengths[head] = cycleLength;
+            head = (head + 1) % CAPACITY;
+        }
+        resetCount++;
+    }
+
+    /**
+     * Returns the total number of resets recorded.
+     *
+     * @return the total number of resets recorded
+     */
+    public int getResetCount() {
+        return resetCount;
+    }
+
+    /**
+     * Returns the length in seconds of the current cycle, as read right after
+     * the latest reset, or {@code -1} if no reset has been recorded.
+     *
+     * @return the length in seconds of the current cycle, or {@code -1} if no
+     *         reset has been recorded
+     */
+    public int getCycleLength() {
+        return size == 0 ? -1 : cycleLengths[(head + size - 1) % CAPACITY];
+    }
+
+    /**
+     * Returns the mean number of game ticks between two consecutive kept
+     * resets, or {@link Double#NaN} if there are no such resets.
+     * <p>
+     * Only resets that started cycles of the current length are counted, and
+     * two of them are only counted as consecutive if they are no further
+     * apart than one and a half cycles, so resets missed while the hologram
+     * was unloaded do not count.
+     *
+     * @return the mean number of game ticks between two consecutive resets,
+     *         or {@code NaN} if there are no such resets
+     */
+    public double getMeanInterval() {
+        long sum = 0;
+        int count = 0;
+        for (int i = 1; i < size; i++) {
+            long interval = getInterval(i);
+            if (interval != -1) {
+                sum += interval;
+                count++;
+            }
+        }
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * Returns the standard deviation in game ticks of the intervals between
+     * two consecutive kept resets, or {@link Double#NaN} if there are no such
+     * resets.
+     *
+     * @return the standard deviation in game ticks of the intervals between
+     *         two consecutive resets, or {@code NaN} if there are no such
+     *         resets
+     * @see #getMeanInterval()
+     */
+    public double getJitter() {
+        double mean = getMeanInterval();
+        if (Double.isNaN(mean)) {
+            return Double.NaN;
+        }
+        double sumOfSquares = 0;
+        int count = 0;
+        for (int i = 1; i < size; i++) {
+            long interval = getInterval(i);
+            if (interval != -1) {
+                double deviation = interval - mean;
+                sumOfSquares += deviation * deviation;
+                count++;
+            }
+        }
+        return Math.sqrt(sumOfSquares / count);
+    }
+
+    /**
+     * Returns the number of times the length of the cycle has changed.
+     *
+     * @return the number of times the length of the cycle has changed
+     */
+    public int getTierTransitions() {
+        return tierTransitions;
+    }
+
+    /**
+     * Returns the game tick of the latest change of the length of the cycle,
+     * or {@code -1} if it has never changed.
+     *
+     * @return the game tick of the latest change of the length of the cycle,
+     *         or {@code -1} if it has never changed
+     */
+    public long getLastTransitionTick() {
+        return lastTransitionTick;
+    }
+
+    /**
+     * Forgets all recorded resets.
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+        resetCount = 0;
+        tierTransitions = 0;
+        lastTransitionTick = -1;
+    }
+
+    /**
+     * Returns the number of game ticks between the kept reset at a position
+     * and the one before it, or {@code -1} if they are not consecutive
+     * resets in cycles of the current length.
+     *
+     * @param i the position of the later reset, counting from the oldest
+     *         kept one; must be positive and less than {@link #size}
+     * @return the number of game ticks between the two resets, or {@code -1}
+     *         if they are not consecutive resets in cycles of the current
+     *         length
+     */
+    private long getInterval(int i) {
+        int previous = (head + i - 1) % CAPACITY;
+        int current = (head + i) % CAPACITY;
+        int cycleLength = getCycleLength();
+        if (cycleLengths[previous] != cycleLength
+                || cycleLengths[current] != cycleLength) {
+            return -1;
+        }
+        long interval = resetTicks[current] - resetTicks[previous];
+        long maxInterval =
+                (long) cycleLength * TICKS_PER_SECOND * 3 / 2;
+        return interval > maxInterval ? -1 : interval;
+    }
+}
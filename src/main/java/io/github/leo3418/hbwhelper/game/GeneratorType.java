@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+import io.github.leo3418.hbwhelper.util.ComponentPattern;
+
+/**
+ * Enumeration of types of resource generators in the middle of a Bed Wars map
+ * whose spawn times are shown in holograms.
+ *
+ * @author Leo
+ */
+public enum GeneratorType {
+    /**
+     * Diamond generator
+     */
+    DIAMOND("\u00A7b\u00A7lDiamond\u00A7r"),
+    /**
+     * Emerald generator
+     */
+    EMERALD("\u00A72\u00A7lEmerald\u00A7r");
+
+    /**
+     * Pattern of text that only appears in this type of generator's display
+     * name
+     */
+    final ComponentPattern namePattern;
+
+    /**
+     * Constructs a new constant of generator types.
+     *
+     * @param nameText text that only appears in this type of generator's
+     *         display name
+     */
+    GeneratorType(String nameText) {
+        this.namePattern = ComponentPattern.compile(nameText);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+/**
+ * Projects the income of each resource per minute from the generator on the
+ * player's base island and from each generator in the middle of the map,
+ * under the current resource generation speed level and generator tiers.
+ * <p>
+ * The rates come from a table precomputed for every combination of level
+ * and tiers, and are only looked up again when any of them changes, so
+ * reading them costs nothing. The base rates are approximate figures for
+ * Solo and Doubles modes; the generators in the middle of the map spawn one
+ * resource per cycle, whose length is known for each tier.
+ * <p>
+ * Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+public final class ResourceProjection {
+    /**
+     * Enumeration of resources that can be spawned by generators.
+     */
+    public enum Resource {
+        /**
+         * Iron ingots
+         */
+        IRON,
+        /**
+         * Gold ingots
+         */
+        GOLD,
+        /**
+         * Diamonds
+         */
+        DIAMOND,
+        /**
+         * Emeralds
+         */
+        EMERALD
+    }
+
+    /**
+     * Number of generator tiers
+     */
+    private static final int TIERS = 3;
+
+    /**
+     * Approximate number of iron ingots spawned per minute on the player's
+     * base island without any upgrade
+     */
+    private static final double BASE_IRON_RATE = 36;
+
+    /**
+     * Approximate number of gold ingots spawned per minute on the player's
+     * base island without any upgrade
+     */
+    private static final double BASE_GOLD_RATE = 9;
+
+    /**
+     * Multiplier of the iron and gold rates on the player's base island for
+     * each resource generation speed level, indexed by ordinal of the level
+     */
+    private static final double[] FORGE_MULTIPLIERS = {1, 1.5, 2, 2, 3};
+
+    /**
+     * Approximate number of emeralds spawned per minute on the player's base
+     * island for each resource generation speed level, indexed by ordinal of
+     * the level
+     */
+    private static final double[] FORGE_EMERALD_RATES = {0, 0, 0, 1, 1};
+
+    /**
+     * Seconds between two spawns of a diamond generator at each tier
+     */
+    private static final int[] DIAMOND_CYCLES = {30, 23, 12};
+
+    /**
+     * Seconds between two spawns of an emerald generator at each tier
+     */
+    private static final int[] EMERALD_CYCLES = {65, 50, 35};
+
+    /**
+     * Number of each resource spawned per minute on the player's base island,
+     * indexed by ordinal of the resource generation speed level and then
+     * ordinal of the resource
+     */
+    private static final double[][] BASE_RATES;
+
+    /**
+     * Number of each resource spawned per minute by a generator in the
+     * middle of the map, indexed by the diamond tier minus one, the emerald
+     * tier minus one and then ordinal of the resource
+     */
+    private static final double[][][] MID_RATES;
+
+    static {
+        ForgeLevel[] forgeLevels = ForgeLevel.values();
+        Resource[] resources = Resource.values();
+        BASE_RATES = new double[forgeLevels.length][resources.length];
+        for (ForgeLevel forgeLevel : forgeLevels) {
+            int i = forgeLevel.ordinal();
+            BASE_RATES[i][Resource.IRON.ordinal()] =
+                    BASE_IRON_RATE * FORGE_MULTIPLIERS[i];
+            BASE_RATES[i][Resource.GOLD.ordinal()] =
+                    BASE_GOLD_RATE * FORGE_MULTIPLIERS[i];
+            BASE_RATES[i][Resource.EMERALD.ordinal()] = FORGE_EMERALD_RATES[i];
+        }
+        MID_RATES = new double[TIERS][TIERS][resources.length];
+        for (int diamondTier = 0; diamondTier < TIERS; diamondTier++) {
+            for (int emeraldTier = 0; emeraldTier < TIERS; emeraldTier++) {
+                double[] rates = MID_RATES[diamondTier][emeraldTier];
+                rates[Resource.DIAMOND.ordinal()] =
+                        60.0 / DIAMOND_CYCLES[diamondTier];
+                rates[Resource.EMERALD.ordinal()] =
+                        60.0 / EMERALD_CYCLES[emeraldTier];
+            }
+        }
+    }
+
+    /**
+     * The resource generation speed level the rates are projected for
+     */
+    private ForgeLevel forgeLevel;
+
+    /**
+     * The tier of diamond generators the rates are projected for
+     */
+    private int diamondTier;
+
+    /**
+     * The tier of emerald generators the rates are projected for
+     */
+    private int emeraldTier;
+
+    /**
+     * Number of each resource spawned per minute on the player's base island,
+     * indexed by ordinal of the resource
+     */
+    private double[] baseRates;
+
+    /**
+     * Number of each resource spawned per minute by a generator in the
+     * middle of the map, indexed by ordinal of the resource
+     */
+    private double[] midRates;
+
+    /**
+     * Constructs a new {@code ResourceProjection} object with the rates
+     * before any upgrade.
+     */
+    ResourceProjection() {
+        this.forgeLevel = ForgeLevel.ORDINARY_FORGE;
+        this.diamondTier = 1;
+        this.emeraldTier = 1;
+        this.baseRates = BASE_RATES[forgeLevel.ordinal()];
+        this.midRates = MID_RATES[0][0];
+    }
+
+    /**
+     * Updates the rates if the resource generation speed level or any
+     * generator tier has changed.
+     *
+     * @param forgeLevel the current resource generation speed level
+     * @param diamondTier the current tier of diamond generators
+     * @param emeraldTier the current tier of emerald generators
+     */
+    void update(ForgeLevel forgeLevel, int diamondTier, int emeraldTier) {
+        diamondTier = clampTier(diamondTier);
+        emeraldTier = clampTier(emeraldTier);
+        if (forgeLevel == this.forgeLevel && diamondTier == this.diamondTier
+                && emeraldTier == this.emeraldTier) {
+            return;
+        }
+        this.forgeLevel = forgeLevel;
+        this.diamondTier = diamondTier;
+        this.emeraldTier = emeraldTier;
+        this.baseRates = BASE_RATES[forgeLevel.ordinal()];
+        this.midRates = MID_RATES[this.diamondTier - 1][this.emeraldTier - 1];
+    }
+
+    /**
+     * Returns the number of a resource spawned per minute on the player's
+     * base island.
+     *
+     * @param resource the resource
+     * @return the number of the resource spawned per minute on the player's
+     *         base island
+     */
+    public double getBaseRate(Resource resource) {
+        return baseRates[resource.ordinal()];
+    }
+
+    /**
+     * Returns the number of a resource spawned per minute by one generator
+     * in the middle of the map.
+     *
+     * @param resource the resource
+     * @return the number of the resource spawned per minute by a generator
+     *         in the middle of the map
+     */
+    public double getMidRate(Resource resource) {
+        return midRates[resource.ordinal()];
+    }
+
+    /**
+     * Returns the number of seconds until a number of diamonds can be
+     * collected from one diamond generator in the middle of the map, given
+     * the number of diamonds already owned.
+     *
+     * @param owned the number of diamonds already owned
+     * @param needed the number of diamonds needed
+     * @return the number of seconds until the diamonds needed can be
+     *         collected, or {@code 0} if enough diamonds are already owned
+     */
+    public int getSecondsUntilDiamonds(int owned, int needed) {
+        if (owned >= needed) {
+            return 0;
+        }
+        double rate = midRates[Resource.DIAMOND.ordinal()];
+        return (int) Math.ceil((needed - owned) * 60 / rate);
+    }
+
+    /**
+     * Returns a tier limited to the range of valid tiers.
+     *
+     * @param tier the tier
+     * @return the tier limited to the range of valid tiers
+     */
+    private static int clampTier(int tier) {
+        return Math.max(1, Math.min(tier, TIERS));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.game;
+
+import java.util.Objects;
+
+/**
+ * Enumeration of team upgrades in Hypixel Bed Wars whose progress is tracked
+ * by {@link GameManager}, along with their prices in diamonds.
+ * <p>
+ * The prices are those in Solo and Doubles modes; they are higher in modes
+ * with more players per team.
+ *
+ * @author Leo
+ */
+public enum TeamUpgrade {
+    /**
+     * The "Iron Forge" upgrade
+     */
+    IRON_FORGE("hbwhelper.upgrade.ironForge", 2),
+    /**
+     * The "Golden Forge" upgrade
+     */
+    GOLDEN_FORGE("hbwhelper.upgrade.goldenForge", 4),
+    /**
+     * The "Emerald Forge" upgrade
+     */
+    EMERALD_FORGE("hbwhelper.upgrade.emeraldForge", 6),
+    /**
+     * The "Molten Forge" upgrade
+     */
+    MOLTEN_FORGE("hbwhelper.upgrade.moltenForge", 8),
+    /**
+     * The "Heal Pool" upgrade
+     */
+    HEAL_POOL("hbwhelper.upgrade.healPool", 1),
+    /**
+     * The "Dragon Buff" upgrade
+     */
+    DRAGON_BUFF("hbwhelper.upgrade.dragonBuff", 5),
+    /**
+     * A trap, whose price doubles with every trap already in the trap queue
+     */
+    TRAP("hbwhelper.upgrade.trap", 1);
+
+    /**
+     * Translate key for the name of this upgrade
+     */
+    private final String translateKey;
+
+    /**
+     * Price of this upgrade in diamonds
+     */
+    private final int price;
+
+    /**
+     * Constructs a new constant of team upgrades.
+     *
+     * @param translateKey translate key for the name of this upgrade
+     * @param price price of this upgrade in diamonds
+     * @throws NullPointerException if {@code translateKey == null}
+     */
+    TeamUpgrade(String translateKey, int price) {
+        this.translateKey =
+                Objects.requireNonNull(translateKey, "translateKey");
+        this.price = price;
+    }
+
+    /**
+     * Returns the translate key for the name of this upgrade.
+     *
+     * @return the translate key for the name of this upgrade
+     */
+    public String getTranslateKey() {
+        return translateKey;
+    }
+
+    /**
+     * Returns the price of this upgrade in diamonds. For {@link #TRAP}, this
+     * is the price of the first trap in the trap queue.
+     *
+     * @return the price of this upgrade in diamonds
+     */
+    public int getPrice() {
+        return price;
+    }
+
+    /**
+     * Returns the upgrade that raises the resource generation speed level on
+     * the player's base island from a level, or {@code null} if the level is
+     * already the highest.
+     *
+     * @param forgeLevel the current resource generation speed level
+     * @return the upgrade to the next resource generation speed level, or
+     *         {@code null} if there is none
+     */
+    static TeamUpgrade nextForge(ForgeLevel forgeLevel) {
+        switch (forgeLevel) {
+            case ORDINARY_FORGE:
+                return IRON_FORGE;
+            case IRON_FORGE:
+                return GOLDEN_FORGE;
+            case GOLDEN_FORGE:
+                return EMERALD_FORGE;
+            case EMERALD_FORGE:
+                return MOLTEN_FORGE;
+            default:
+                return null;
+        }
+    }
+}
@@ -34,55 +34,17 @@ public enum TrapType {
     /**
      * The ordinary "It's a trap!"
      */
-    ORDINARY("It's a trap!"),
+    ORDINARY,
     /**
      * The "Counter-Offensive Trap"
      */
-    COUNTER("Counter-Offensive Trap"),
+    COUNTER,
     /**
      * The "Alarm Trap"
-     * <p>
-     * This value has an extra argument because Hypixel uses "Alarm Trap"
-     * and "Alarm trap" at the same time.
      */
-    ALARM("Alarm Trap", "Alarm trap"),
+    ALARM,
     /**
      * The "Miner Fatigue Trap"
      */
-    MINER_FATIGUE("Miner Fatigue Trap");
-
-    /**
-     * Part of the prompt shown when the player's team purchases this trap
-     */
-    final String purchasePrompt;
-
-    /**
-     * Part of the prompt shown when this trap is set off
-     */
-    final String setOffPrompt;
-
-    /**
-     * Constructs a new constant of traps whose name is <b>consistent</b>
-     * in Hypixel Bed Wars.
-     *
-     * @param name the name of this trap shown in any prompt in Hypixel
-     *         Bed Wars without any formatting code
-     */
-    TrapType(String name) {
-        this(name, name);
-    }
-
-    /**
-     * Constructs a new constant of traps whose name is <b>inconsistent</b>
-     * in Hypixel Bed Wars.
-     *
-     * @param purchaseName the name of this trap in the prompt shown when
-     *         the player's team purchases this trap
-     * @param setOffName the name of this trap in the prompt shown when
-     *         it sets off
-     */
-    TrapType(String purchaseName, String setOffName) {
-        this.purchasePrompt = "\u00A7r\u00A76" + purchaseName + "\u00A7r";
-        this.setOffPrompt = "\u00A7c\u00A7l" + setOffName;
-    }
+    MINER_FATIGUE
 }
@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.gui;
+
+import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.AbstractGui;
+import net.minecraft.client.renderer.IRenderTypeBuffer;
+import net.minecraft.client.renderer.ItemRenderer;
+import net.minecraft.client.renderer.RenderHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.renderer.model.ItemCameraTransforms;
+import net.minecraft.client.renderer.texture.AtlasTexture;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.vector.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Positioned icons and strings of {@link HudGui}, which are drawn in batches
+ * instead of one by one.
+ * <p>
+ * {@link ItemRenderer#renderAndDecorateItem} ends a batch of its own for every
+ * item, and each string drawn through {@link AbstractGui} does the same. This
+ * class instead writes all item icons into one shared buffer source and ends
+ * the batch once for flat items and once for items lit like blocks, because
+ * the two kinds need different lighting; then it writes all strings into
+ * another buffer source and ends that batch once.
+ * <p>
+ * The content is laid out only when {@code HudGui} is rebuilt, and drawn on
+ * every frame. Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+final class HudBatch {
+    /**
+     * Packed light value with full block and sky light
+     */
+    private static final int FULL_BRIGHT = 15728880;
+
+    /**
+     * Z-offset of item icons, as used by {@link ItemRenderer}
+     */
+    private static final float ITEM_Z_OFFSET = 100;
+
+    /**
+     * Size of an item icon in pixels
+     */
+    private static final int ITEM_SIZE = 16;
+
+    /**
+     * Initial capacity of the coordinate arrays
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The instance of Minecraft client
+     */
+    private final Minecraft mc;
+
+    /**
+     * Items whose icons are drawn
+     */
+    private final List<ItemStack> items;
+
+    /**
+     * X- and y-coordinates of each item icon, interleaved
+     */
+    private int[] itemCoords;
+
+    /**
+     * Status effect icons drawn
+     */
+    private final List<TextureAtlasSprite> effectIcons;
+
+    /**
+     * X- and y-coordinates and size of each status effect icon, interleaved
+     */
+    private int[] effectIconCoords;
+
+    /**
+     * Strings drawn
+     */
+    private final List<String> strings;
+
+    /**
+     * X- and y-coordinates of each string, interleaved
+     */
+    private int[] stringCoords;
+
+    /**
+     * Color of the strings
+     */
+    private final int textColor;
+
+    /**
+     * Constructs a new empty {@code HudBatch}.
+     *
+     * @param textColor color of the strings drawn
+     */
+    HudBatch(int textColor) {
+        this.mc = Minecraft.getInstance();
+        this.items = new ArrayList<>();
+        this.itemCoords = new int[INITIAL_CAPACITY * 2];
+        this.effectIcons = new ArrayList<>();
+        this.effectIconCoords = new int[INITIAL_CAPACITY * 3];
+        this.strings = new ArrayList<>();
+        this.stringCoords = new int[INITIAL_CAPACITY * 2];
+        this.textColor = textColor;
+    }
+
+    /**
+     * Removes everything laid out in this batch.
+     */
+    void clear() {
+        items.clear();
+        effectIcons.clear();
+        strings.clear();
+    }
+
+    /**
+     * Lays out an icon of an item.
+     *
+     * @param itemStack the {@link ItemStack} for the item
+     * @param x the x-coordinate of the icon
+     * @param y the y-coordinate of the icon
+     */
+    void addItem(ItemStack itemStack, int x, int y) {
+        itemCoords = put(itemCoords, items.size() * 2, x, y);
+        items.add(itemStack);
+    }
+
+    /**
+     * Lays out an icon of a status effect.
+     *
+     * @param icon the status effect's icon
+     * @param x the x-coordinate of the icon
+     * @param y the y-coordinate of the icon
+     * @param size the width and height of the icon
+     */
+    void addEffectIcon(TextureAtlasSprite icon, int x, int y, int size) {
+        int offset = effectIcons.size() * 3;
+        effectIconCoords = put(effectIconCoords, offset, x, y);
+        effectIconCoords[offset + 2] = size;
+        effectIcons.add(icon);
+    }
+
+    /**
+     * Lays out a string.
+     *
+     * @param text the text to be drawn
+     * @param x the x-coordinate of the string
+     * @param y the y-coordinate of the string
+     */
+    void addString(String text, int x, int y) {
+        stringCoords = put(stringCoords, strings.size() * 2, x, y);
+        strings.add(text);
+    }
+
+    /**
+     * Draws everything laid out in this batch.
+     *
+     * @param matrixStack the matrix stack used in GUI rendering
+     */
+    void draw(MatrixStack matrixStack) {
+        drawEffectIcons(matrixStack);
+        if (!items.isEmpty()) {
+            drawItems(matrixStack);
+        }
+        if (!strings.isEmpty()) {
+            drawStrings(matrixStack);
+        }
+    }
+
+    /**
+     * Draws the status effect icons in this batch.
+     *
+     * @param matrixStack the matrix stack used in GUI rendering
+     */
+    private void drawEffectIcons(MatrixStack matrixStack) {
+        for (int i = 0; i < effectIcons.size(); i++) {
+            TextureAtlasSprite icon = effectIcons.get(i);
+            mc.getTextureManager().bind(icon.atlas().location());
+            // Removes black background of the first icon rendered
+            RenderSystem.enableBlend();
+            int size = effectIconCoords[i * 3 + 2];
+            AbstractGui.blit(matrixStack, effectIconCoords[i * 3],
+                    effectIconCoords[i * 3 + 1], 0, size, size, icon);
+        }
+    }
+
+    /**
+     * Draws the item icons in this batch with two batches, and then their
+     * decorations like durability bars.
+     *
+     * @param matrixStack the matrix stack used in GUI rendering
+     */
+    private void drawItems(MatrixStack matrixStack) {
+        ItemRenderer itemRenderer = mc.getItemRenderer();
+        mc.getTextureManager().bind(AtlasTexture.LOCATION_BLOCKS);
+        RenderSystem.enableRescaleNormal();
+        RenderSystem.enableAlphaTest();
+        RenderSystem.defaultAlphaFunc();
+        RenderSystem.enableBlend();
+        // Keeps coverage in the alpha channel when drawn into a framebuffer
+        RenderSystem.blendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA,
+                GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA,
+                GlStateManager.SourceFactor.ONE,
+                GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+        RenderSystem.color4f(1.0F, 1.0F, 1.0F, 1.0F);
+        IRenderTypeBuffer.Impl buffers = mc.renderBuffers().bufferSource();
+        drawItems(matrixStack, itemRenderer, buffers, false);
+        drawItems(matrixStack, itemRenderer, buffers, true);
+        RenderSystem.disableAlphaTest();
+        RenderSystem.disableRescaleNormal();
+        for (int i = 0; i < items.size(); i++) {
+            itemRenderer.renderGuiItemDecorations(mc.font, items.get(i),
+                    itemCoords[i * 2], itemCoords[i * 2 + 1]);
+        }
+        RenderHelper.turnOff();
+    }
+
+    /**
+     * Draws the icons of either flat items or items lit like blocks in this
+     * batch, and ends the batch.
+     *
+     * @param matrixStack the matrix stack used in GUI rendering
+     * @param itemRenderer the item renderer
+     * @param buffers the buffer source shared by all items
+     * @param blockLight {@code true} to draw items lit like blocks, or
+     *         {@code false} to draw flat items
+     */
+    private void drawItems(MatrixStack matrixStack, ItemRenderer itemRenderer,
+                           IRenderTypeBuffer.Impl buffers,
+                           boolean blockLight) {
+        boolean any = false;
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack itemStack = items.get(i);
+            IBakedModel model = itemRenderer.getModel(itemStack, null, null);
+            if (model.usesBlockLight() != blockLight) {
+                continue;
+            }
+            matrixStack.pushPose();
+            matrixStack.translate(itemCoords[i * 2] + ITEM_SIZE / 2.0,
+                    itemCoords[i * 2 + 1] + ITEM_SIZE / 2.0, ITEM_Z_OFFSET);
+            matrixStack.scale(ITEM_SIZE, -ITEM_SIZE, ITEM_SIZE);
+            itemRenderer.render(itemStack,
+                    ItemCameraTransforms.TransformType.GUI, false,
+                    matrixStack, buffers, FULL_BRIGHT,
+                    OverlayTexture.NO_OVERLAY, model);
+            matrixStack.popPose();
+            any = true;
+        }
+        if (any) {
+            if (blockLight) {
+                RenderHelper.setupFor3DItems();
+            } else {
+                RenderHelper.setupForFlatItems();
+            }
+            buffers.endBatch();
+            RenderSystem.enableDepthTest();
+        }
+    }
+
+    /**
+     * Draws the strings in this batch with a shadow, and ends the batch.
+     *
+     * @param matrixStack the matrix stack used in GUI rendering
+     */
+    private void drawStrings(MatrixStack matrixStack) {
+        IRenderTypeBuffer.Impl buffers = IRenderTypeBuffer.immediate(
+                Tessellator.getInstance().getBuilder());
+        Matrix4f matrix = matrixStack.last().pose();
+        for (int i = 0; i < strings.size(); i++) {
+            mc.font.drawInBatch(strings.get(i), stringCoords[i * 2],
+                    stringCoords[i * 2 + 1], textColor, true, matrix,
+                    buffers, false, 0, FULL_BRIGHT);
+        }
+        buffers.endBatch();
+    }
+
+    /**
+     * Stores a pair of coordinates in an array at an offset, growing the
+     * array if necessary.
+     *
+     * @param coords the array
+     * @param offset the offset
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the array, or a larger copy of it if it has grown
+     */
+    private static int[] put(int[] coords, int offset, int x, int y) {
+        if (offset + 3 > coords.length) {
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        coords[offset] = x;
+        coords[offset + 1] = y;
+        return coords;
+    }
+}
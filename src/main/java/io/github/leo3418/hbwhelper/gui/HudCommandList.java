@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.gui;
+
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A list of prepared draw commands of {@link HudGui}, which is built only when
+ * the content of the GUI changes and replayed on every frame.
+ * <p>
+ * Command objects are reused when the list is rebuilt, so rebuilding it only
+ * allocates when it holds more commands than ever before. Objects of this
+ * class are not thread-safe.
+ *
+ * @author Leo
+ */
+final class HudCommandList {
+    /**
+     * Kind of command that draws an icon of an item with a string to its
+     * right
+     */
+    static final int ITEM_ICON_AND_STRING = 0;
+
+    /**
+     * Kind of command that draws icons of items in a single line
+     */
+    static final int ITEM_ICONS = 1;
+
+    /**
+     * Kind of command that draws an icon of a status effect with a string to
+     * its right
+     */
+    static final int EFFECT_ICON_AND_STRING = 2;
+
+    /**
+     * Kind of command that draws a string
+     */
+    static final int STRING = 3;
+
+    /**
+     * All command objects ever created, of which the first {@link #size} are
+     * in this list
+     */
+    private final List<Command> commands;
+
+    /**
+     * Number of commands in this list
+     */
+    private int size;
+
+    /**
+     * Constructs a new empty {@code HudCommandList}.
+     */
+    HudCommandList() {
+        this.commands = new ArrayList<>();
+    }
+
+    /**
+     * Removes all commands in this list.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            commands.get(i).clear();
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the number of commands in this list.
+     *
+     * @return the number of commands in this list
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a command in this list.
+     *
+     * @param index the index of the command
+     * @return the command at the index
+     */
+    Command get(int index) {
+        return commands.get(index);
+    }
+
+    /**
+     * Appends a command that draws an icon of an item with a string to its
+     * right.
+     *
+     * @param itemStack the {@link ItemStack} for the item
+     * @param text the text to be drawn, which is separated from the icon by a
+     *         space
+     */
+    void addItemIconAndString(ItemStack itemStack, String text) {
+        Command command = next(ITEM_ICON_AND_STRING);
+        command.items.add(itemStack);
+        command.text = " " + text;
+    }
+
+    /**
+     * Appends a command that draws icons of items in a single line.
+     *
+     * @param itemStacks the {@link ItemStack} for each item, which are copied
+     *         into the command
+     */
+    void addItemIcons(List<ItemStack> itemStacks) {
+        next(ITEM_ICONS).items.addAll(itemStacks);
+    }
+
+    /**
+     * Appends a command that draws an icon of a status effect with a string
+     * to its right.
+     *
+     * @param icon the status effect's icon
+     * @param text the text to be drawn, which is separated from the icon by a
+     *         space
+     */
+    void addEffectIconAndString(TextureAtlasSprite icon, String text) {
+        Command command = next(EFFECT_ICON_AND_STRING);
+        command.icon = icon;
+        command.text = " " + text;
+    }
+
+    /**
+     * Appends a command that draws a string.
+     *
+     * @param text the text to be drawn
+     */
+    void addString(String text) {
+        next(STRING).text = text;
+    }
+
+    /**
+     * Returns the next unused command object after setting its kind, and
+     * adds it to this list.
+     *
+     * @param kind the kind of the command
+     * @return the command object
+     */
+    private Command next(int kind) {
+        if (size == commands.size()) {
+            commands.add(new Command());
+        }
+        Command command = commands.get(size++);
+        command.kind = kind;
+        return command;
+    }
+
+    /**
+     * A prepared draw command.
+     */
+    static final class Command {
+        /**
+         * Kind of this command
+         */
+        int kind;
+
+        /**
+         * The items whose icons are drawn by this command
+         */
+        final List<ItemStack> items = new ArrayList<>();
+
+        /**
+         * The status effect icon drawn by this command, or {@code null} if
+         * there is none
+         */
+        TextureAtlasSprite icon;
+
+        /**
+         * The text drawn by this command, or {@code null} if there is none
+         */
+        String text;
+
+        /**
+         * Resets this command so it can be reused.
+         */
+        private void clear() {
+            items.clear();
+            icon = null;
+            text = null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.gui;
+
+import java.util.Arrays;
+
+/**
+ * Fingerprint of everything {@link HudGui} shows, which tells whether the GUI
+ * needs to be rebuilt since the last frame.
+ * <p>
+ * A fingerprint is a sequence of {@code int} values and object references
+ * that are {@linkplain #add(int) added} on every frame between calls to
+ * {@link #begin()} and {@link #end()}. It is compared with the one of the
+ * previous frame exactly, so there are no false matches. The buffers are
+ * reused across frames and only grow when a fingerprint is longer than any
+ * before. Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+final class HudFingerprint {
+    /**
+     * Initial capacity of the buffers
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Values of the fingerprint being built
+     */
+    private int[] values;
+
+    /**
+     * Values of the previous fingerprint
+     */
+    private int[] previousValues;
+
+    /**
+     * Number of values of the fingerprint being built
+     */
+    private int valueCount;
+
+    /**
+     * Number of values of the previous fingerprint
+     */
+    private int previousValueCount;
+
+    /**
+     * Object references of the fingerprint being built
+     */
+    private Object[] refs;
+
+    /**
+     * Object references of the previous fingerprint
+     */
+    private Object[] previousRefs;
+
+    /**
+     * Number of object references of the fingerprint being built
+     */
+    private int refCount;
+
+    /**
+     * Number of object references of the previous fingerprint
+     */
+    private int previousRefCount;
+
+    /**
+     * Whether the next fingerprint should be reported as changed regardless
+     * of its content
+     */
+    private boolean invalidated;
+
+    /**
+     * Constructs a new {@code HudFingerprint} that reports the first
+     * fingerprint as changed.
+     */
+    HudFingerprint() {
+        values = new int[INITIAL_CAPACITY];
+        previousValues = new int[INITIAL_CAPACITY];
+        refs = new Object[INITIAL_CAPACITY];
+        previousRefs = new Object[INITIAL_CAPACITY];
+        invalidated = true;
+    }
+
+    /**
+     * Starts building a new fingerprint.
+     */
+    void begin() {
+        valueCount = 0;
+        refCount = 0;
+    }
+
+    /**
+     * Adds an {@code int} value to the fingerprint being built.
+     *
+     * @param value the value
+     */
+    void add(int value) {
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, valueCount * 2);
+        }
+        values[valueCount++] = value;
+    }
+
+    /**
+     * Adds a {@code long} value to the fingerprint being built.
+     *
+     * @param value the value
+     */
+    void add(long value) {
+        add((int) value);
+        add((int) (value >>> 32));
+    }
+
+    /**
+     * Adds a {@code boolean} value to the fingerprint being built.
+     *
+     * @param value the value
+     */
+    void add(boolean value) {
+        add(value ? 1 : 0);
+    }
+
+    /**
+     * Adds an object reference to the fingerprint being built, which is
+     * compared by identity.
+     *
+     * @param ref the object reference, which may be {@code null}
+     */
+    void add(Object ref) {
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refCount * 2);
+        }
+        refs[refCount++] = ref;
+    }
+
+    /**
+     * Finishes building the fingerprint, and returns whether it differs from
+     * the previous one.
+     *
+     * @return whether the fingerprint differs from the previous one
+     */
+    boolean end() {
+        boolean changed = invalidated || valueCount != previousValueCount
+                || refCount != previousRefCount;
+        for (int i = 0; !changed && i < valueCount; i++) {
+            changed = values[i] != previousValues[i];
+        }
+        for (int i = 0; !changed && i < refCount; i++) {
+            changed = refs[i] != previousRefs[i];
+        }
+        invalidated = false;
+        int[] swappedValues = previousValues;
+        previousValues = values;
+        values = swappedValues;
+        previousValueCount = valueCount;
+        Object[] swappedRefs = previousRefs;
+        previousRefs = refs;
+        refs = swappedRefs;
+        // Does not keep references to objects no longer shown
+        Arrays.fill(refs, 0, Math.min(previousRefCount, refs.length), null);
+        previousRefCount = refCount;
+        return changed;
+    }
+
+    /**
+     * Makes the next fingerprint be reported as changed.
+     */
+    void invalidate() {
+        invalidated = true;
+    }
+}
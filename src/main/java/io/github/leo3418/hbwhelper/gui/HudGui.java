@@ -26,31 +26,56 @@
 package io.github.leo3418.hbwhelper.gui;
 
 import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.systems.RenderSystem;
 import io.github.leo3418.hbwhelper.ConfigManager;
+import io.github.leo3418.hbwhelper.chat.ChatClassificationCache;
+import io.github.leo3418.hbwhelper.chat.ChatPipeline;
 import io.github.leo3418.hbwhelper.game.CountedTrap;
+import io.github.leo3418.hbwhelper.game.GameEventType;
 import io.github.leo3418.hbwhelper.game.GameManager;
+import io.github.leo3418.hbwhelper.game.GameTimeline;
+import io.github.leo3418.hbwhelper.game.Generator;
+import io.github.leo3418.hbwhelper.game.GeneratorIndex;
+import io.github.leo3418.hbwhelper.game.GeneratorStats;
+import io.github.leo3418.hbwhelper.game.GeneratorType;
+import io.github.leo3418.hbwhelper.game.TeamUpgrade;
 import io.github.leo3418.hbwhelper.util.ArmorReader;
 import io.github.leo3418.hbwhelper.util.EffectsReader;
 import io.github.leo3418.hbwhelper.util.GameDetector;
+import net.minecraft.client.MainWindow;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.AbstractGui;
 import net.minecraft.client.gui.screen.ChatScreen;
-import net.minecraft.client.renderer.RenderHelper;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.resources.I18n;
+import net.minecraft.client.shader.Framebuffer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.potion.EffectInstance;
+import net.minecraft.resources.IReloadableResourceManager;
+import net.minecraft.resources.IResourceManagerReloadListener;
 import net.minecraftforge.client.event.RenderGameOverlayEvent;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import static net.minecraft.item.Items.*;
-
 /**
  * The GUI of this mod shown in Minecraft's Head-Up Display (HUD).
  * <p>
+ * Content of this GUI is kept as a list of prepared draw commands, which is
+ * laid out into icons and strings drawn in batches on every frame. The
+ * commands are only rebuilt and laid out, which involves translating and
+ * formatting text, when a fingerprint of everything shown on this GUI
+ * changes, e.g. when a spawn time counts down or the configuration changes.
+ * <p>
+ * Optionally, the commands are drawn into an offscreen framebuffer only when
+ * they are rebuilt or the window is resized, and the framebuffer is drawn on
+ * the HUD as a single textured quad on every frame. Animations in item icons,
+ * like the enchantment glint on armor, are frozen in this mode.
+ * <p>
+ * The time spent in each section of rendering is always measured, and the
+ * percentiles of recent timings can be shown on this GUI for diagnosis.
+ * <p>
  * This is a Singleton class. Only one instance of this class may be created
  * per runtime.
  *
@@ -105,6 +130,12 @@ public class HudGui extends AbstractGui {
      */
     private static final String FLASH_COLOR_PREFIX = "\u00A7c";
 
+    /**
+     * All generator types, cached to avoid copying the array on every frame
+     */
+    private static final GeneratorType[] GENERATOR_TYPES =
+            GeneratorType.values();
+
     /**
      * The only instance of this class
      */
@@ -135,6 +166,57 @@ public class HudGui extends AbstractGui {
      */
     private int currentHeight;
 
+    /**
+     * The prepared draw commands of this GUI
+     */
+    private final HudCommandList commands;
+
+    /**
+     * Icons and strings of {@link #commands} laid out on this GUI, which are
+     * drawn in batches
+     */
+    private final HudBatch batch;
+
+    /**
+     * Fingerprint of everything this GUI shows, which tells when
+     * {@link #commands} should be rebuilt
+     */
+    private final HudFingerprint fingerprint;
+
+    /**
+     * Table of icons of items drawn on this GUI
+     */
+    private final HudIcons icons;
+
+    /**
+     * Reusable list of icons in a line, which is copied into the draw command
+     * of the line
+     */
+    private final List<ItemStack> iconRow;
+
+    /**
+     * Profiler of the time spent in each section of rendering this GUI
+     */
+    private final HudProfiler profiler;
+
+    /**
+     * The offscreen framebuffer this GUI is cached in, or {@code null} if
+     * caching is disabled
+     */
+    private Framebuffer cache;
+
+    /**
+     * The GUI scale at which {@link #cache} was drawn
+     */
+    private double cacheGuiScale;
+
+    /**
+     * The pipeline every chat message client receives goes through, whose
+     * statistics are shown as diagnostic information, or {@code null} if it
+     * has not been set
+     */
+    private ChatPipeline chatPipeline;
+
     /**
      * Implementation of Singleton design pattern, which allows only one
      * instance of this class to be created.
@@ -145,6 +227,17 @@ public class HudGui extends AbstractGui {
         configManager = ConfigManager.getInstance();
         currentHeight = configManager.hudY();
         matrixStack = new MatrixStack();
+        commands = new HudCommandList();
+        batch = new HudBatch(TEXT_COLOR);
+        profiler = new HudProfiler();
+        fingerprint = new HudFingerprint();
+        // Icons of status effects are replaced when resources are reloaded
+        ((IReloadableResourceManager) mc.getResourceManager())
+                .registerReloadListener((IResourceManagerReloadListener)
+                        resourceManager -> fingerprint.invalidate());
+        // This instance is created during client setup
+        icons = new HudIcons();
+        iconRow = new ArrayList<>(GameManager.MAX_TRAPS + 1);
     }
 
     /**
@@ -156,6 +249,16 @@ public class HudGui extends AbstractGui {
         return INSTANCE;
     }
 
+    /**
+     * Sets the pipeline every chat message client receives goes through, so
+     * its statistics can be shown as diagnostic information.
+     *
+     * @param chatPipeline the chat pipeline
+     */
+    public void setChatPipeline(ChatPipeline chatPipeline) {
+        this.chatPipeline = chatPipeline;
+    }
+
     /**
      * When vanilla Minecraft's HUD is rendered, renders this GUI on the HUD.
      * <p>
@@ -175,15 +278,240 @@ public class HudGui extends AbstractGui {
          */
         if (shouldRender() && event.getType() ==
                 RenderGameOverlayEvent.ElementType.HOTBAR) {
-            if (gameDetector.isIn()) {
-                renderGameInfo();
-                renderArmorInfo();
-                renderEffectsInfo();
-            } else if (configManager.alwaysShowEffects()) {
-                renderEffectsInfo();
+            long start = profiler.start();
+            boolean changed = updateFingerprint();
+            start = profiler.record(HudProfiler.FINGERPRINT, start);
+            if (changed) {
+                buildCommands();
+                start = profiler.start();
+                layoutCommands();
+                start = profiler.record(HudProfiler.LAYOUT, start);
+            }
+            if (configManager.cacheHud()) {
+                renderCached(changed);
+            } else {
+                releaseCache();
+                batch.draw(matrixStack);
+            }
+            profiler.record(HudProfiler.DRAW, start);
+            profiler.endFrame();
+        }
+    }
+
+    /**
+     * Draws the offscreen framebuffer this GUI is cached in on the HUD, after
+     * redrawing the framebuffer if necessary.
+     *
+     * @param changed whether the draw commands have been rebuilt since the
+     *         last frame
+     */
+    private void renderCached(boolean changed) {
+        MainWindow window = mc.getWindow();
+        int width = window.getWidth();
+        int height = window.getHeight();
+        if (cache == null) {
+            cache = new Framebuffer(width, height, true, Minecraft.ON_OSX);
+            cache.setClearColor(0, 0, 0, 0);
+            changed = true;
+        } else if (cache.width != width || cache.height != height) {
+            cache.resize(width, height, Minecraft.ON_OSX);
+            changed = true;
+        }
+        if (window.getGuiScale() != cacheGuiScale) {
+            cacheGuiScale = window.getGuiScale();
+            changed = true;
+        }
+        if (changed) {
+            cache.clear(Minecraft.ON_OSX);
+            cache.bindWrite(true);
+            /*
+            The framebuffer is cleared to transparent, so drawing over it
+            leaves colors multiplied by their alpha, and the alpha channel
+            accumulates coverage
+             */
+            RenderSystem.enableBlend();
+            RenderSystem.blendFuncSeparate(
+                    GlStateManager.SourceFactor.SRC_ALPHA,
+                    GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA,
+                    GlStateManager.SourceFactor.ONE,
+                    GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+            batch.draw(matrixStack);
+            mc.getMainRenderTarget().bindWrite(true);
+        }
+        int scaledWidth = window.getGuiScaledWidth();
+        int scaledHeight = window.getGuiScaledHeight();
+        RenderSystem.enableBlend();
+        // Colors in the framebuffer are already multiplied by their alpha
+        RenderSystem.blendFunc(GlStateManager.SourceFactor.ONE,
+                GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+        cache.bindRead();
+        // Rows of the framebuffer texture start from the bottom
+        blit(matrixStack, 0, 0, scaledWidth, scaledHeight, 0, scaledHeight,
+                scaledWidth, -scaledHeight, scaledWidth, scaledHeight);
+        cache.unbindRead();
+        RenderSystem.defaultBlendFunc();
+    }
+
+    /**
+     * Releases the offscreen framebuffer this GUI is cached in, if any.
+     */
+    private void releaseCache() {
+        if (cache != null) {
+            cache.destroyBuffers();
+            cache = null;
+            cacheGuiScale = 0;
+        }
+    }
+
+    /**
+     * Builds the fingerprint of everything this GUI would show on the
+     * current frame, and returns whether it has changed since the last frame.
+     * <p>
+     * Only values that are cheap to read go into the fingerprint; in
+     * particular, all values about the current game come from the snapshot
+     * {@link GameManager} updates once per tick.
+     *
+     * @return whether the content of this GUI has changed since the last frame
+     */
+    private boolean updateFingerprint() {
+        fingerprint.begin();
+        fingerprint.add(mc.options.languageCode);
+        fingerprint.add(configManager.hudX());
+        fingerprint.add(configManager.hudY());
+        fingerprint.add(configManager.showGenerationTimes());
+        fingerprint.add(configManager.showTeamUpgrades());
+        fingerprint.add(configManager.showArmorInfo());
+        fingerprint.add(configManager.showEffectsInfo());
+        fingerprint.add(configManager.alwaysShowEffects());
+        fingerprint.add(configManager.showDebugInfo());
+        fingerprint.add(configManager.profileHud());
+        if (configManager.profileHud()) {
+            fingerprint.add(profiler.getGeneration());
+        }
+        boolean inGame = gameDetector.isIn();
+        fingerprint.add(inGame);
+        GameManager game = GameManager.getInstance();
+        if (inGame && game != null) {
+            fingerprint.add(game);
+            if (configManager.showGenerationTimes()) {
+                fingerprint.add(game.getNextDiamond());
+                fingerprint.add(game.getNextEmerald());
+                for (GeneratorType type : GENERATOR_TYPES) {
+                    fingerprint.add(game.getLoadedGeneratorCount(type));
+                    fingerprint.add(game.getGeneratorCount(type));
+                    fingerprint.add(game.getNearestGeneratorDistance(type));
+                    fingerprint.add(game.getTimeline().getTier(type));
+                }
+                fingerprint.add(game.getTimeline().getNextEvent());
+                if (mc.level != null) {
+                    fingerprint.add(game.getTimeline()
+                            .getSecondsUntilNextEvent(mc.level.getGameTime()));
+                }
+            }
+            if (configManager.showTeamUpgrades()) {
+                fingerprint.add(game.getForgeLevel());
+                fingerprint.add(game.hasHealPool());
+                fingerprint.add(game.hasDragonBuff());
+                fingerprint.add(game.getDeadShotLevel());
+                for (CountedTrap countedTrap : game.getTraps()) {
+                    fingerprint.add(countedTrap.getTrapType());
+                }
+                fingerprint.add(game.getNextUpgrade());
+                fingerprint.add(game.getSecondsUntilNextUpgrade());
+            }
+        }
+        if (inGame && configManager.showArmorInfo()) {
+            boolean hasArmor = ArmorReader.hasArmor();
+            fingerprint.add(hasArmor);
+            if (hasArmor) {
+                fingerprint.add(ArmorReader.getArmorStack());
+                fingerprint.add(ArmorReader.getProtectionLevel());
+            }
+        }
+        if ((inGame || configManager.alwaysShowEffects())
+                && configManager.showEffectsInfo()) {
+            boolean flashOn = System.currentTimeMillis() % (FLASH_INTERVAL * 2)
+                    < FLASH_INTERVAL;
+            for (EffectInstance potionEffect : EffectsReader.getEffects()) {
+                fingerprint.add(potionEffect.getEffect());
+                fingerprint.add(potionEffect.getAmplifier());
+                int duration = EffectsReader.getDuration(potionEffect);
+                fingerprint.add(duration);
+                if (duration > 0 && duration <= WEAR_OUT_THRESHOLD) {
+                    fingerprint.add(flashOn);
+                }
+            }
+        }
+        if (configManager.showDebugInfo()) {
+            if (chatPipeline != null) {
+                fingerprint.add(chatPipeline.getPrefilter().getAccepted());
+                fingerprint.add(chatPipeline.getPrefilter().getRejected());
+                fingerprint.add(chatPipeline.getCache().getHits());
+                fingerprint.add(chatPipeline.getCache().getMisses());
+            }
+            if (inGame && game != null) {
+                GeneratorIndex index = GeneratorIndex.getInstance();
+                fingerprint.add(index.getScans());
+                fingerprint.add(index.getFailedScans());
+                fingerprint.add(index.getReparses());
+                fingerprint.add(index.getReparsesAvoided());
+                for (GeneratorType type : GENERATOR_TYPES) {
+                    Generator generator = game.getNearestGenerator(type);
+                    fingerprint.add(generator);
+                    if (generator != null) {
+                        fingerprint.add(generator.getStats().getResetCount());
+                    }
+                }
+            }
+        }
+        return fingerprint.end();
+    }
+
+    /**
+     * Rebuilds the prepared draw commands of this GUI from the current state.
+     */
+    private void buildCommands() {
+        commands.clear();
+        long start = profiler.start();
+        if (gameDetector.isIn()) {
+            buildGameInfo();
+            start = profiler.record(HudProfiler.GAME_INFO, start);
+            buildArmorInfo();
+            start = profiler.record(HudProfiler.ARMOR_INFO, start);
+            buildEffectsInfo();
+            profiler.record(HudProfiler.EFFECTS_INFO, start);
+        } else if (configManager.alwaysShowEffects()) {
+            buildEffectsInfo();
+            profiler.record(HudProfiler.EFFECTS_INFO, start);
+        }
+        buildDebugInfo();
+        buildProfile();
+    }
+
+    /**
+     * Lays out the prepared draw commands of this GUI in {@link #batch}.
+     */
+    private void layoutCommands() {
+        batch.clear();
+        currentHeight = configManager.hudY();
+        for (int i = 0; i < commands.size(); i++) {
+            HudCommandList.Command command = commands.get(i);
+            switch (command.kind) {
+                case HudCommandList.ITEM_ICON_AND_STRING:
+                    layoutItemIconAndString(command.items.get(0),
+                            command.text);
+                    break;
+                case HudCommandList.ITEM_ICONS:
+                    layoutItemIcons(command.items);
+                    break;
+                case HudCommandList.EFFECT_ICON_AND_STRING:
+                    layoutEffectIconAndString(command.icon,
+                            command.text);
+                    break;
+                case HudCommandList.STRING:
+                    layoutString(command.text);
+                    break;
             }
-            // Resets height of the first line in the next rendering
-            currentHeight = configManager.hudY();
         }
     }
 
@@ -198,9 +526,9 @@ public class HudGui extends AbstractGui {
     }
 
     /**
-     * Renders the player's armor information on this GUI.
+     * Adds draw commands for the player's armor information on this GUI.
      */
-    private void renderArmorInfo() {
+    private void buildArmorInfo() {
         if (configManager.showArmorInfo() && ArmorReader.hasArmor()) {
             // If the player has armor, checks its enchantment
             int enchantmentLevel = ArmorReader.getProtectionLevel();
@@ -208,18 +536,19 @@ public class HudGui extends AbstractGui {
             if (enchantmentLevel > 0) {
                 level += enchantmentLevel;
             }
-            drawItemIconAndString(ArmorReader.getArmorStack(), level);
+            commands.addItemIconAndString(ArmorReader.getArmorStack(),
+                    level);
         }
     }
 
     /**
-     * Renders the player's effects information on this GUI.
+     * Adds draw commands for the player's effects information on this GUI.
      * <p>
      * When a status effect's remaining time is lower than
      * {@link HudGui#WEAR_OUT_THRESHOLD}, the remaining time displayed on this
      * GUI starts to flash.
      */
-    private void renderEffectsInfo() {
+    private void buildEffectsInfo() {
         if (configManager.showEffectsInfo()) {
             for (EffectInstance potionEffect : EffectsReader.getEffects()) {
                 TextureAtlasSprite icon = EffectsReader.getIcon(potionEffect);
@@ -242,177 +571,291 @@ public class HudGui extends AbstractGui {
                 }
                 effectInfo += displayedDuration;
 
-                drawEffectIconAndString(icon, effectInfo);
+                commands.addEffectIconAndString(icon, effectInfo);
             }
         }
     }
 
     /**
-     * Renders information of the current game session on this GUI.
+     * Returns a compact summary of generators of a type, which consists of
+     * their current tier, the shortest spawn time, the number of generators
+     * that can be read out of all known ones, and the distance to the nearest
+     * one.
+     *
+     * @param game the {@link GameManager} of the current game
+     * @param type the type of generators
+     * @param spawnTime the shortest spawn time of the generators, or
+     *         {@code -1} if no generator can be read
+     * @return a compact summary of generators of the type
+     */
+    private static String getGeneratorSummary(GameManager game,
+                                              GeneratorType type,
+                                              int spawnTime) {
+        if (spawnTime == -1) {
+            return I18n.get("hbwhelper.hudGui.findingGenerator");
+        }
+        return I18n.get("hbwhelper.hudGui.generatorSummary", spawnTime,
+                game.getLoadedGeneratorCount(type),
+                game.getGeneratorCount(type),
+                game.getNearestGeneratorDistance(type),
+                I18n.get("enchantment.level."
+                        + game.getTimeline().getTier(type)));
+    }
+
+    /**
+     * Returns the name of the next scheduled event in the current game
+     * along with its countdown, or {@code null} if the next event is unknown.
+     *
+     * @param timeline the timeline of the current game
+     * @return the name and countdown of the next scheduled event, or
+     *         {@code null} if it is unknown
      */
-    private void renderGameInfo() {
+    private String getNextEventSummary(GameTimeline timeline) {
+        GameEventType nextEvent = timeline.getNextEvent();
+        if (nextEvent == null || mc.level == null) {
+            return null;
+        }
+        return I18n.get("hbwhelper.hudGui.nextEvent",
+                I18n.get(nextEvent.getTranslateKey()),
+                timeline.getCountdownText(mc.level.getGameTime()));
+    }
+
+    /**
+     * Adds draw commands for information of the current game session on
+     * this GUI.
+     */
+    private void buildGameInfo() {
         GameManager game = GameManager.getInstance();
         if (game != null) {
             if (configManager.showGenerationTimes()) {
-                String nextDiamond;
-                if (game.getNextDiamond() != -1) {
-                    nextDiamond = game.getNextDiamond() + "s";
-                } else {
-                    nextDiamond =
-                            I18n.get("hbwhelper.hudGui.findingGenerator");
-                }
-                String nextEmerald;
-                if (game.getNextEmerald() != -1) {
-                    nextEmerald = game.getNextEmerald() + "s";
-                } else {
-                    nextEmerald =
-                            I18n.get("hbwhelper.hudGui.findingGenerator");
+                String nextDiamond = getGeneratorSummary(game,
+                        GeneratorType.DIAMOND, game.getNextDiamond());
+                String nextEmerald = getGeneratorSummary(game,
+                        GeneratorType.EMERALD, game.getNextEmerald());
+                commands.addItemIconAndString(icons.of(GeneratorType.DIAMOND),
+                        nextDiamond);
+                commands.addItemIconAndString(icons.of(GeneratorType.EMERALD),
+                        nextEmerald);
+                String nextEvent = getNextEventSummary(game.getTimeline());
+                if (nextEvent != null) {
+                    commands.addItemIconAndString(icons.nextEvent, nextEvent);
                 }
-                drawItemIconAndString(new ItemStack(DIAMOND), nextDiamond);
-                drawItemIconAndString(new ItemStack(EMERALD), nextEmerald);
             }
 
             if (configManager.showTeamUpgrades()) {
                 // Level of resource generation speed
-                List<ItemStack> itemsForForgeLevels = new ArrayList<>(2);
-                itemsForForgeLevels.add(new ItemStack(FURNACE));
-                switch (game.getForgeLevel()) {
-                    case ORDINARY_FORGE:
-                        break;
-                    case IRON_FORGE:
-                        itemsForForgeLevels.add(new ItemStack(IRON_INGOT));
-                        break;
-                    case GOLDEN_FORGE:
-                        itemsForForgeLevels.add(new ItemStack(GOLD_INGOT));
-                        break;
-                    case EMERALD_FORGE:
-                        itemsForForgeLevels.add(new ItemStack(EMERALD));
-                        break;
-                    case MOLTEN_FORGE:
-                        itemsForForgeLevels.add(new ItemStack(LAVA_BUCKET));
-                        break;
+                iconRow.clear();
+                iconRow.add(icons.forge);
+                ItemStack forgeLevelIcon = icons.of(game.getForgeLevel());
+                if (forgeLevelIcon != null) {
+                    iconRow.add(forgeLevelIcon);
                 }
-                drawItemIcons(itemsForForgeLevels);
+                commands.addItemIcons(iconRow);
 
                 // "Heal Pool" and "Dragon Buff"
-                List<ItemStack> itemsForUpgrades = new ArrayList<>();
+                iconRow.clear();
                 if (game.hasHealPool()) {
-                    itemsForUpgrades.add(new ItemStack(BEACON));
+                    iconRow.add(icons.of(TeamUpgrade.HEAL_POOL));
                 }
                 if (game.hasDragonBuff()) {
-                    itemsForUpgrades.add(new ItemStack(DRAGON_EGG));
+                    iconRow.add(icons.of(TeamUpgrade.DRAGON_BUFF));
                 }
-                drawItemIcons(itemsForUpgrades);
+                commands.addItemIcons(iconRow);
 
                 // "DeadShot"
                 int deadShotLevelInt = game.getDeadShotLevel();
                 String deadShotLevelString;
                 if (deadShotLevelInt > 0) {
                     deadShotLevelString = Integer.toString(deadShotLevelInt);
-                    drawItemIconAndString(new ItemStack(DIAMOND_HOE),
+                    commands.addItemIconAndString(icons.deadShot,
                             deadShotLevelString);
                 }
 
                 // Trap queue
-                List<ItemStack> itemsForTraps =
-                        new ArrayList<>(GameManager.MAX_TRAPS + 1);
-                itemsForTraps.add(new ItemStack(LEATHER));
+                iconRow.clear();
+                iconRow.add(icons.trapQueue);
                 for (CountedTrap countedTrap : game.getTraps()) {
-                    switch (countedTrap.getTrapType()) {
-                        case ORDINARY:
-                            itemsForTraps.add(new ItemStack(TRIPWIRE_HOOK));
-                            break;
-                        case COUNTER:
-                            itemsForTraps.add(new ItemStack(FEATHER));
-                            break;
-                        case ALARM:
-                            itemsForTraps.add(new ItemStack(REDSTONE_TORCH));
-                            break;
-                        case MINER_FATIGUE:
-                            itemsForTraps.add(new ItemStack(IRON_PICKAXE));
-                            break;
-                    }
+                    iconRow.add(icons.of(countedTrap.getTrapType()));
+                }
+                commands.addItemIcons(iconRow);
+
+                // Projected time until the cheapest missing upgrade
+                TeamUpgrade nextUpgrade = game.getNextUpgrade();
+                if (nextUpgrade != null) {
+                    int seconds = game.getSecondsUntilNextUpgrade();
+                    String upgradeName =
+                            I18n.get(nextUpgrade.getTranslateKey());
+                    commands.addItemIconAndString(icons.nextUpgrade,
+                            seconds == 0
+                                    ? I18n.get("hbwhelper.hudGui"
+                                    + ".nextUpgradeAffordable", upgradeName)
+                                    : I18n.get("hbwhelper.hudGui.nextUpgrade",
+                                    upgradeName, seconds));
                 }
-                drawItemIcons(itemsForTraps);
             }
         }
     }
 
     /**
-     * Renders icon of a status effect with a string to its right on this GUI.
+     * Adds draw commands for diagnostic information of the chat pipeline and
+     * the generators on this GUI if it is enabled.
+     */
+    private void buildDebugInfo() {
+        if (!configManager.showDebugInfo()) {
+            return;
+        }
+        if (chatPipeline != null) {
+            ChatClassificationCache cache = chatPipeline.getCache();
+            commands.addString(I18n.get("hbwhelper.hudGui.debug.chat",
+                    Math.round(chatPipeline.getPrefilter().getRejectRatio()
+                            * 100),
+                    cache.getHits(), cache.getMisses()));
+        }
+        GameManager game = GameManager.getInstance();
+        if (game != null && gameDetector.isIn()) {
+            GeneratorIndex index = GeneratorIndex.getInstance();
+            commands.addString(I18n.get("hbwhelper.hudGui.debug.scans",
+                    index.getScans(), index.getFailedScans()));
+            commands.addString(I18n.get("hbwhelper.hudGui.debug.reparses",
+                    index.getReparses(), index.getReparsesAvoided()));
+            addGeneratorStats(game, GeneratorType.DIAMOND);
+            addGeneratorStats(game, GeneratorType.EMERALD);
+        }
+    }
+
+    /**
+     * Adds draw commands for the time spent in each section of rendering this
+     * GUI if profiling is enabled.
+     */
+    private void buildProfile() {
+        if (!configManager.profileHud()) {
+            return;
+        }
+        for (int section = 0; section < HudProfiler.SECTIONS; section++) {
+            commands.addString(I18n.get("hbwhelper.hudGui.debug.profile",
+                    profiler.getName(section),
+                    toMicros(profiler.getP50(section)),
+                    toMicros(profiler.getP99(section)),
+                    toMicros(profiler.getMax(section)),
+                    profiler.getSampleCount(section)));
+        }
+    }
+
+    /**
+     * Returns a duration in nanoseconds formatted in microseconds with one
+     * decimal place.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the duration formatted in microseconds
+     */
+    private static String toMicros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+
+    /**
+     * Adds a draw command for the statistics of the nearest generator of a
+     * type to the player on this GUI, if any generator of the type is known.
+     *
+     * @param game the {@link GameManager} of the current game
+     * @param type the type of generators
+     */
+    private void addGeneratorStats(GameManager game, GeneratorType type) {
+        Generator generator = game.getNearestGenerator(type);
+        if (generator == null) {
+            return;
+        }
+        GeneratorStats stats = generator.getStats();
+        double meanInterval = stats.getMeanInterval();
+        double jitter = stats.getJitter();
+        commands.addString(I18n.get("hbwhelper.hudGui.debug.generator",
+                I18n.get(icons.of(type).getDescriptionId()),
+                stats.getCycleLength(),
+                Double.isNaN(meanInterval) ? "-"
+                        : String.format("%.1f", meanInterval / 20),
+                Double.isNaN(jitter) ? "-" : String.format("%.1f", jitter),
+                stats.getResetCount(), stats.getTierTransitions()));
+    }
+
+    /**
+     * Lays out a string on this GUI.
+     * <p>
+     * The string aligns this GUI's left edge, and it is under the previous
+     * element on this GUI. The string's color is defined by
+     * {@link #TEXT_COLOR}.
+     * <p>
+     * After this element is laid out, sets height of the next element to be
+     * directly below this element.
+     *
+     * @param text the text to be drawn
+     */
+    private void layoutString(String text) {
+        batch.addString(text, configManager.hudX(), currentHeight);
+        currentHeight += LINE_HEIGHT;
+    }
+
+    /**
+     * Lays out icon of a status effect with a string to its right on this
+     * GUI.
      * <p>
      * The icon aligns this GUI's left edge, and it is under the previous
      * element on this GUI. The string's color is defined by
      * {@link #TEXT_COLOR}.
      * <p>
-     * After this element is rendered, sets height of the next element to be
+     * After this element is laid out, sets height of the next element to be
      * directly below this element.
      *
      * @param icon the status effect's icon
-     * @param text the text to be rendered
+     * @param text the text to be drawn
      */
-    private void drawEffectIconAndString(TextureAtlasSprite icon, String text) {
-        mc.getTextureManager()
-                .bind(icon.atlas().location());
-        // Removes black background of the first icon rendered
-        RenderSystem.enableBlend();
-        blit(matrixStack, configManager.hudX(), currentHeight,
-                this.getBlitOffset(),
-                EFFECT_ICON_SIZE, EFFECT_ICON_SIZE, icon);
-        drawString(matrixStack, mc.font, " " + text,
-                EFFECT_ICON_SIZE + configManager.hudX(),
-                currentHeight + (EFFECT_ICON_SIZE - LINE_HEIGHT) / 2 + 1,
-                TEXT_COLOR);
+    private void layoutEffectIconAndString(TextureAtlasSprite icon,
+                                           String text) {
+        batch.addEffectIcon(icon, configManager.hudX(), currentHeight,
+                EFFECT_ICON_SIZE);
+        batch.addString(text, EFFECT_ICON_SIZE + configManager.hudX(),
+                currentHeight + (EFFECT_ICON_SIZE - LINE_HEIGHT) / 2 + 1);
         currentHeight += EFFECT_ICON_SIZE + 1;
     }
 
     /**
-     * Renders an icon of an item with a string to its right on this GUI.
+     * Lays out an icon of an item with a string to its right on this GUI.
      * <p>
      * The icon aligns this GUI's left edge, and it is under the previous
      * element on this GUI. The string's color is defined by
      * {@link #TEXT_COLOR}.
      * <p>
-     * After this element is rendered, sets height of the next element to be
+     * After this element is laid out, sets height of the next element to be
      * directly below this element.
      *
      * @param itemStack the {@link ItemStack} for the item
-     * @param text the text to be rendered
+     * @param text the text to be drawn
      */
-    private void drawItemIconAndString(ItemStack itemStack, String text) {
-        RenderHelper.turnBackOn();
-        mc.getItemRenderer().renderAndDecorateItem(itemStack,
+    private void layoutItemIconAndString(ItemStack itemStack, String text) {
+        batch.addItem(itemStack,
                 configManager.hudX() + (EFFECT_ICON_SIZE - ITEM_ICON_SIZE) / 2,
                 currentHeight);
-        RenderHelper.turnOff();
-        drawString(matrixStack, mc.font, " " + text,
-                ITEM_ICON_SIZE + configManager.hudX(),
-                currentHeight + (ITEM_ICON_SIZE - LINE_HEIGHT) / 2 + 1,
-                TEXT_COLOR);
+        batch.addString(text, ITEM_ICON_SIZE + configManager.hudX(),
+                currentHeight + (ITEM_ICON_SIZE - LINE_HEIGHT) / 2 + 1);
         currentHeight += ITEM_ICON_SIZE + 1;
     }
 
     /**
-     * Renders icons of a {@link List} of items on this GUI in a single line.
+     * Lays out icons of a {@link List} of items on this GUI in a single line.
      * <p>
      * The first icon aligns this GUI's left edge. The icons are under the
      * previous element on this GUI.
      * <p>
-     * After the icons are rendered, sets height of the next element to be
+     * After the icons are laid out, sets height of the next element to be
      * directly below these icons.
      *
      * @param itemStacks the {@code List} of {@link ItemStack} for each item
      */
-    private void drawItemIcons(List<ItemStack> itemStacks) {
+    private void layoutItemIcons(List<ItemStack> itemStacks) {
         int currentWidth = configManager.hudX()
                 + (EFFECT_ICON_SIZE - ITEM_ICON_SIZE) / 2;
-        RenderHelper.turnBackOn();
         for (ItemStack itemStack : itemStacks) {
-            mc.getItemRenderer().renderAndDecorateItem(itemStack,
-                    currentWidth, currentHeight);
+            batch.addItem(itemStack, currentWidth, currentHeight);
             currentWidth += ITEM_ICON_SIZE + 1;
         }
-        RenderHelper.turnOff();
         if (!itemStacks.isEmpty()) {
             currentHeight += ITEM_ICON_SIZE + 1;
         }
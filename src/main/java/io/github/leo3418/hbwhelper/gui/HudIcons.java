@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.gui;
+
+import io.github.leo3418.hbwhelper.game.ForgeLevel;
+import io.github.leo3418.hbwhelper.game.GeneratorType;
+import io.github.leo3418.hbwhelper.game.TeamUpgrade;
+import io.github.leo3418.hbwhelper.game.TrapType;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static net.minecraft.item.Items.*;
+
+/**
+ * Table of the {@link ItemStack} objects whose icons are drawn on
+ * {@link HudGui}, so no {@code ItemStack} is created while the GUI is being
+ * rendered.
+ * <p>
+ * The table is built once when {@code HudGui} is created during client setup.
+ * The {@code ItemStack} objects in it are shared by every draw command and
+ * must never be modified.
+ *
+ * @author Leo
+ */
+final class HudIcons {
+    /**
+     * Icon of each generator type
+     */
+    private final Map<GeneratorType, ItemStack> generatorIcons;
+
+    /**
+     * Icon of each resource generation speed level, except the initial one
+     * which has no icon
+     */
+    private final Map<ForgeLevel, ItemStack> forgeLevelIcons;
+
+    /**
+     * Icon of each trap type
+     */
+    private final Map<TrapType, ItemStack> trapIcons;
+
+    /**
+     * Icon of each team upgrade
+     */
+    private final Map<TeamUpgrade, ItemStack> upgradeIcons;
+
+    /**
+     * Icon in front of the resource generation speed level
+     */
+    final ItemStack forge;
+
+    /**
+     * Icon in front of the trap queue
+     */
+    final ItemStack trapQueue;
+
+    /**
+     * Icon of the "DeadShot" upgrade
+     */
+    final ItemStack deadShot;
+
+    /**
+     * Icon in front of the next scheduled event
+     */
+    final ItemStack nextEvent;
+
+    /**
+     * Icon in front of the projected time until the next upgrade
+     */
+    final ItemStack nextUpgrade;
+
+    /**
+     * Constructs a new {@code HudIcons} table. This constructor must be
+     * called after items have been registered.
+     */
+    HudIcons() {
+        generatorIcons = new EnumMap<>(GeneratorType.class);
+        generatorIcons.put(GeneratorType.DIAMOND, icon(DIAMOND));
+        generatorIcons.put(GeneratorType.EMERALD, icon(EMERALD));
+
+        forgeLevelIcons = new EnumMap<>(ForgeLevel.class);
+        forgeLevelIcons.put(ForgeLevel.IRON_FORGE, icon(IRON_INGOT));
+        forgeLevelIcons.put(ForgeLevel.GOLDEN_FORGE, icon(GOLD_INGOT));
+        forgeLevelIcons.put(ForgeLevel.EMERALD_FORGE, icon(EMERALD));
+        forgeLevelIcons.put(ForgeLevel.MOLTEN_FORGE, icon(LAVA_BUCKET));
+
+        trapIcons = new EnumMap<>(TrapType.class);
+        trapIcons.put(TrapType.ORDINARY, icon(TRIPWIRE_HOOK));
+        trapIcons.put(TrapType.COUNTER, icon(FEATHER));
+        trapIcons.put(TrapType.ALARM, icon(REDSTONE_TORCH));
+        trapIcons.put(TrapType.MINER_FATIGUE, icon(IRON_PICKAXE));
+
+        upgradeIcons = new EnumMap<>(TeamUpgrade.class);
+        upgradeIcons.put(TeamUpgrade.IRON_FORGE,
+                forgeLevelIcons.get(ForgeLevel.IRON_FORGE));
+        upgradeIcons.put(TeamUpgrade.GOLDEN_FORGE,
+                forgeLevelIcons.get(ForgeLevel.GOLDEN_FORGE));
+        upgradeIcons.put(TeamUpgrade.EMERALD_FORGE,
+                forgeLevelIcons.get(ForgeLevel.EMERALD_FORGE));
+        upgradeIcons.put(TeamUpgrade.MOLTEN_FORGE,
+                forgeLevelIcons.get(ForgeLevel.MOLTEN_FORGE));
+        upgradeIcons.put(TeamUpgrade.HEAL_POOL, icon(BEACON));
+        upgradeIcons.put(TeamUpgrade.DRAGON_BUFF, icon(DRAGON_EGG));
+        upgradeIcons.put(TeamUpgrade.TRAP, trapIcons.get(TrapType.ORDINARY));
+
+        forge = icon(FURNACE);
+        trapQueue = icon(LEATHER);
+        deadShot = icon(DIAMOND_HOE);
+        nextEvent = icon(CLOCK);
+        nextUpgrade = icon(ENCHANTING_TABLE);
+    }
+
+    /**
+     * Returns the icon of a generator type.
+     *
+     * @param type the generator type
+     * @return the icon of the generator type
+     */
+    ItemStack of(GeneratorType type) {
+        return generatorIcons.get(type);
+    }
+
+    /**
+     * Returns the icon of a resource generation speed level, or {@code null}
+     * if the level has no icon.
+     *
+     * @param forgeLevel the resource generation speed level
+     * @return the icon of the resource generation speed level, or
+     *         {@code null} if it has no icon
+     */
+    ItemStack of(ForgeLevel forgeLevel) {
+        return forgeLevelIcons.get(forgeLevel);
+    }
+
+    /**
+     * Returns the icon of a trap type.
+     *
+     * @param trapType the trap type
+     * @return the icon of the trap type
+     */
+    ItemStack of(TrapType trapType) {
+        return trapIcons.get(trapType);
+    }
+
+    /**
+     * Returns the icon of a team upgrade.
+     *
+     * @param upgrade the team upgrade
+     * @return the icon of the team upgrade
+     */
+    ItemStack of(TeamUpgrade upgrade) {
+        return upgradeIcons.get(upgrade);
+    }
+
+    /**
+     * Returns a new {@link ItemStack} of an item to be used as an icon.
+     *
+     * @param item the item
+     * @return a new {@code ItemStack} of the item
+     */
+    private static ItemStack icon(Item item) {
+        return new ItemStack(item);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.gui;
+
+import java.util.Arrays;
+
+/**
+ * Profiler of the time {@link HudGui} spends in each section of its
+ * rendering.
+ * <p>
+ * Durations are measured with {@link System#nanoTime()} and kept in a
+ * fixed-size ring of primitive samples per section, so recording a sample
+ * never allocates. The 50th and 99th percentiles and the maximum over the
+ * samples in each ring are recomputed only once every
+ * {@link #REFRESH_INTERVAL} frames.
+ * <p>
+ * Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+final class HudProfiler {
+    /**
+     * Section that builds the fingerprint of the GUI's content, which runs on
+     * every frame
+     */
+    static final int FINGERPRINT = 0;
+
+    /**
+     * Section that builds draw commands for information about the current
+     * game, which runs only when the GUI's content changes
+     */
+    static final int GAME_INFO = 1;
+
+    /**
+     * Section that builds draw commands for armor information, which runs
+     * only when the GUI's content changes
+     */
+    static final int ARMOR_INFO = 2;
+
+    /**
+     * Section that builds draw commands for status effects, which runs only
+     * when the GUI's content changes
+     */
+    static final int EFFECTS_INFO = 3;
+
+    /**
+     * Section that lays out the draw commands, which runs only when the GUI's
+     * content changes
+     */
+    static final int LAYOUT = 4;
+
+    /**
+     * Section that draws the GUI, which runs on every frame
+     */
+    static final int DRAW = 5;
+
+    /**
+     * Number of sections
+     */
+    static final int SECTIONS = 6;
+
+    /**
+     * Names of the sections shown with their timings
+     */
+    private static final String[] SECTION_NAMES = {
+            "fingerprint", "gameInfo", "armorInfo", "effectsInfo", "layout",
+            "draw"
+    };
+
+    /**
+     * Number of the latest samples of each section kept
+     */
+    static final int WINDOW = 256;
+
+    /**
+     * Number of frames between two recomputations of the percentiles
+     */
+    private static final int REFRESH_INTERVAL = 64;
+
+    /**
+     * Ring of the latest durations of each section, in nanoseconds
+     */
+    private final long[][] samples;
+
+    /**
+     * Total number of samples ever recorded for each section
+     */
+    private final long[] counts;
+
+    /**
+     * Scratch array the samples of a section are sorted in
+     */
+    private final long[] sorted;
+
+    /**
+     * Median duration of each section, in nanoseconds
+     */
+    private final long[] p50;
+
+    /**
+     * 99th percentile of durations of each section, in nanoseconds
+     */
+    private final long[] p99;
+
+    /**
+     * Maximum duration of each section, in nanoseconds
+     */
+    private final long[] max;
+
+    /**
+     * Number of frames since the percentiles were last recomputed
+     */
+    private int framesSinceRefresh;
+
+    /**
+     * Number of times the percentiles have been recomputed
+     */
+    private int generation;
+
+    /**
+     * Constructs a new {@code HudProfiler} without any samples.
+     */
+    HudProfiler() {
+        this.samples = new long[SECTIONS][WINDOW];
+        this.counts = new long[SECTIONS];
+        this.sorted = new long[WINDOW];
+        this.p50 = new long[SECTIONS];
+        this.p99 = new long[SECTIONS];
+        this.max = new long[SECTIONS];
+    }
+
+    /**
+     * Returns the current value of the timer sections are measured with.
+     *
+     * @return the current value of the timer, in nanoseconds
+     */
+    long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of a section that started at a time, and returns
+     * the time it ended, so the next section can start from it.
+     *
+     * @param section the section
+     * @param start the value of {@link #start()} when the section started
+     * @return the current value of the timer, in nanoseconds
+     */
+    long record(int section, long start) {
+        long now = System.nanoTime();
+        samples[section][(int) (counts[section] % WINDOW)] = now - start;
+        counts[section]++;
+        return now;
+    }
+
+    /**
+     * Marks the end of a frame, and recomputes the percentiles of every
+     * section if {@link #REFRESH_INTERVAL} frames have passed since they were
+     * last recomputed.
+     */
+    void endFrame() {
+        if (++framesSinceRefresh < REFRESH_INTERVAL) {
+            return;
+        }
+        framesSinceRefresh = 0;
+        for (int section = 0; section < SECTIONS; section++) {
+            int size = (int) Math.min(counts[section], WINDOW);
+            if (size == 0) {
+                continue;
+            }
+            System.arraycopy(samples[section], 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            p50[section] = sorted[(size - 1) / 2];
+            p99[section] = sorted[(size - 1) * 99 / 100];
+            max[section] = sorted[size - 1];
+        }
+        generation++;
+    }
+
+    /**
+     * Returns the number of times the percentiles have been recomputed, which
+     * changes whenever values returned by other methods of this object might
+     * have changed.
+     *
+     * @return the number of times the percentiles have been recomputed
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the name of a section.
+     *
+     * @param section the section
+     * @return the name of the section
+     */
+    String getName(int section) {
+        return SECTION_NAMES[section];
+    }
+
+    /**
+     * Returns the number of samples of a section the percentiles are
+     * computed over.
+     *
+     * @param section the section
+     * @return the number of samples of the section in the window
+     */
+    int getSampleCount(int section) {
+        return (int) Math.min(counts[section], WINDOW);
+    }
+
+    /**
+     * Returns the median duration of a section.
+     *
+     * @param section the section
+     * @return the median duration of the section, in nanoseconds
+     */
+    long getP50(int section) {
+        return p50[section];
+    }
+
+    /**
+     * Returns the 99th percentile of durations of a section.
+     *
+     * @param section the section
+     * @return the 99th percentile of durations of the section, in nanoseconds
+     */
+    long getP99(int section) {
+        return p99[section];
+    }
+
+    /**
+     * Returns the maximum duration of a section.
+     *
+     * @param section the section
+     * @return the maximum duration of the section, in nanoseconds
+     */
+    long getMax(int section) {
+        return max[section];
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A pattern compiled from a piece of formatted text, which is matched against
+ * the {@linkplain TextRuns runs} of a text component instead of the formatted
+ * text serialized from it.
+ * <p>
+ * A piece of formatted text {@code t} can be compiled into a pattern if it is
+ * made up of segments, each of which is a canonical formatting code followed
+ * by text, and segments are separated by reset formatting codes
+ * ({@code §r}). The pattern then matches the runs of a component if and only
+ * if {@code t} is contained in the formatted text of the component, provided
+ * that no run has {@linkplain TextRuns#hasLegacyCodes() legacy formatting
+ * codes}:
+ * <ul>
+ * <li>If {@code t} starts with {@code §r}, some run must precede the matched
+ * runs, whose formatted text ends with {@code §r}.</li>
+ * <li>Each segment must match a run with the same style key, and each run
+ * must be the run right after the previous one.</li>
+ * <li>The last segment's text must be a prefix of the run's contents if it
+ * is not followed by {@code §r}; otherwise, the text of a segment must be
+ * equal to the run's contents.</li>
+ * </ul>
+ * Matching stops at the first run that does not match a segment.
+ * <p>
+ * Objects of this class are immutable.
+ *
+ * @author Leo
+ */
+public final class ComponentPattern {
+    /**
+     * The reset formatting code
+     */
+    private static final String RESET_CODE = "\u00A7r";
+
+    /**
+     * The formatted text this pattern is compiled from
+     */
+    private final String text;
+
+    /**
+     * Whether another run must precede the runs matching the segments
+     */
+    private final boolean requiresPrecedingRun;
+
+    /**
+     * Style keys of the segments
+     */
+    private final int[] styleKeys;
+
+    /**
+     * Texts of the segments
+     */
+    private final String[] texts;
+
+    /**
+     * Whether the text of the last segment only needs to be a prefix of the
+     * contents of the corresponding run
+     */
+    private final boolean lastIsPrefix;
+
+    /**
+     * Constructs a new {@code ComponentPattern} object.
+     *
+     * @param text the formatted text this pattern is compiled from
+     * @param requiresPrecedingRun whether another run must precede the runs
+     *         matching the segments
+     * @param styleKeys style keys of the segments
+     * @param texts texts of the segments
+     * @param lastIsPrefix whether the text of the last segment only needs to
+     *         be a prefix
+     */
+    private ComponentPattern(String text, boolean requiresPrecedingRun,
+                             int[] styleKeys, String[] texts,
+                             boolean lastIsPrefix) {
+        this.text = text;
+        this.requiresPrecedingRun = requiresPrecedingRun;
+        this.styleKeys = styleKeys;
+        this.texts = texts;
+        this.lastIsPrefix = lastIsPrefix;
+    }
+
+    /**
+     * Compiles a piece of formatted text into a {@code ComponentPattern}, or
+     * returns {@code null} if the text cannot be matched structurally and must
+     * be searched in the serialized formatted text instead.
+     *
+     * @param text the piece of formatted text
+     * @return the compiled pattern, or {@code null} if the text cannot be
+     *         compiled
+     * @throws NullPointerException if {@code text == null}
+     */
+    public static ComponentPattern compile(String text) {
+        Objects.requireNonNull(text, "text");
+        int length = text.length();
+        int pos = 0;
+        boolean requiresPrecedingRun = text.startsWith(RESET_CODE);
+        if (requiresPrecedingRun) {
+            pos += RESET_CODE.length();
+        }
+        List<Integer> styleKeys = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        boolean lastIsPrefix = false;
+        while (pos < length) {
+            int codeStart = pos;
+            while (pos + 1 < length && text.charAt(pos) == '\u00A7'
+                    && text.charAt(pos + 1) != 'r') {
+                pos += 2;
+            }
+            int styleKey = TextComponents.parseStyleKey(text, codeStart, pos);
+            if (styleKey == -1) {
+                return null;
+            }
+            if (styleKeys.isEmpty() && !requiresPrecedingRun
+                    && !TextComponents.hasColor(styleKey)) {
+                /*
+                Without a color code at the beginning, the text could also
+                match the end of a longer formatting code or the middle of
+                a run's contents
+                 */
+                return null;
+            }
+            int textStart = pos;
+            while (pos < length && text.charAt(pos) != '\u00A7') {
+                pos++;
+            }
+            String segmentText = text.substring(textStart, pos);
+            styleKeys.add(styleKey);
+            texts.add(segmentText);
+            if (pos == length) {
+                lastIsPrefix = true;
+            } else if (text.startsWith(RESET_CODE, pos)) {
+                if (segmentText.isEmpty()) {
+                    // Runs with empty contents are never produced
+                    return null;
+                }
+                pos += RESET_CODE.length();
+            } else {
+                // A formatting code right after text cannot be a run boundary
+                return null;
+            }
+        }
+        if (styleKeys.isEmpty()) {
+            return null;
+        }
+        int[] styleKeyArray = new int[styleKeys.size()];
+        for (int i = 0; i < styleKeyArray.length; i++) {
+            styleKeyArray[i] = styleKeys.get(i);
+        }
+        return new ComponentPattern(text, requiresPrecedingRun, styleKeyArray,
+                texts.toArray(new String[0]), lastIsPrefix);
+    }
+
+    /**
+     * Returns the style key of the first run matching this pattern.
+     *
+     * @return the style key of the first run matching this pattern
+     */
+    public int getFirstStyleKey() {
+        return styleKeys[0];
+    }
+
+    /**
+     * Returns the text of the last segment of this pattern.
+     *
+     * @return the text of the last segment of this pattern
+     */
+    public String getLastSegmentText() {
+        return texts[texts.length - 1];
+    }
+
+    /**
+     * Returns the number of runs matching this pattern.
+     *
+     * @return the number of runs matching this pattern
+     */
+    public int getRunCount() {
+        return styleKeys.length;
+    }
+
+    /**
+     * Returns whether some runs match this pattern.
+     * <p>
+     * If any run has legacy formatting codes, this method falls back to
+     * searching the formatted text generated from the runs.
+     *
+     * @param runs the runs
+     * @return whether the runs match this pattern
+     * @throws NullPointerException if {@code runs == null}
+     */
+    public boolean matches(TextRuns runs) {
+        Objects.requireNonNull(runs, "runs");
+        if (runs.hasLegacyCodes()) {
+            return runs.appendFormattedText(new StringBuilder()).indexOf(text)
+                    != -1;
+        }
+        return indexIn(runs) != -1;
+    }
+
+    /**
+     * Returns the index of the first run from which the runs match this
+     * pattern, or {@code -1} if the runs do not match this pattern.
+     * <p>
+     * The result is unspecified if any run has legacy formatting codes.
+     *
+     * @param runs the runs
+     * @return the index of the first run from which the runs match this
+     *         pattern, or {@code -1} if there is no match
+     * @throws NullPointerException if {@code runs == null}
+     */
+    public int indexIn(TextRuns runs) {
+        Objects.requireNonNull(runs, "runs");
+        for (int start = requiresPrecedingRun ? 1 : 0;
+             start + styleKeys.length <= runs.size(); start++) {
+            if (matchesAt(runs, start)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the runs starting from an index match this pattern.
+     * Comparison stops at the first run that does not match.
+     * <p>
+     * The result is unspecified if any run has legacy formatting codes.
+     *
+     * @param runs the runs
+     * @param start the index of the first run to be compared
+     * @return whether the runs starting from the index match this pattern
+     * @throws NullPointerException if {@code runs == null}
+     */
+    public boolean matchesAt(TextRuns runs, int start) {
+        Objects.requireNonNull(runs, "runs");
+        if ((requiresPrecedingRun && start < 1) || start < 0
+                || start + styleKeys.length > runs.size()) {
+            return false;
+        }
+        int last = styleKeys.length - 1;
+        for (int i = 0; i <= last; i++) {
+            if (runs.styleKey(start + i) != styleKeys[i]) {
+                return false;
+            }
+            String content = runs.content(start + i);
+            boolean match = (i == last && lastIsPrefix)
+                    ? content.startsWith(texts[i])
+                    : content.equals(texts[i]);
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.util;
+
+import net.minecraft.util.text.ITextComponent;
+
+/**
+ * Extracts the non-negative integer formed by all decimal digits in a piece
+ * of text, like {@code Integer.parseInt(text.replaceAll("[^0-9]", ""))} does,
+ * but without regular expressions or any allocation.
+ * <p>
+ * Legacy formatting codes embedded in the text are skipped, so the digit of a
+ * color code like {@code §6} is not taken as part of the number. Instead of
+ * throwing a {@link NumberFormatException}, {@link #NO_NUMBER} is returned if
+ * the text has no digit or the number does not fit in an {@code int}.
+ * <p>
+ * Objects of this class can be reused for any number of texts, but they are
+ * not thread-safe.
+ *
+ * @author Leo
+ */
+public final class DigitExtractor implements TextComponents.RunVisitor {
+    /**
+     * Value returned when no number can be extracted from a text
+     */
+    public static final int NO_NUMBER = -1;
+
+    /**
+     * The number formed by the digits visited so far
+     */
+    private int value;
+
+    /**
+     * Whether any digit has been visited
+     */
+    private boolean found;
+
+    /**
+     * Whether the number formed by the digits visited so far does not fit in
+     * an {@code int}
+     */
+    private boolean overflow;
+
+    /**
+     * Whether the last character visited is a section sign ({@code §}), in
+     * which case the next character is a formatting code to be skipped
+     */
+    private boolean afterSectionSign;
+
+    /**
+     * Returns the number formed by all digits in the contents of a text
+     * component, or {@link #NO_NUMBER} if there is no digit or the number does
+     * not fit in an {@code int}.
+     *
+     * @param textComponent the text component
+     * @return the number formed by all digits in the text component, or
+     *         {@code NO_NUMBER} if no number can be extracted
+     * @throws NullPointerException if {@code textComponent == null}
+     */
+    public int extract(ITextComponent textComponent) {
+        reset();
+        TextComponents.visitRuns(textComponent, this);
+        return getResult();
+    }
+
+    /**
+     * Returns the number formed by all digits in a piece of text, or
+     * {@link #NO_NUMBER} if there is no digit or the number does not fit in an
+     * {@code int}.
+     *
+     * @param text the text
+     * @return the number formed by all digits in the text, or
+     *         {@code NO_NUMBER} if no number can be extracted
+     * @throws NullPointerException if {@code text == null}
+     */
+    public int extract(CharSequence text) {
+        reset();
+        accept(text);
+        return getResult();
+    }
+
+    /**
+     * Accumulates the digits in the contents of a run.
+     *
+     * @param styleKey the style key of the run, which is ignored
+     * @param content the contents of the run
+     * @return {@code true} unless the number no longer fits in an {@code int}
+     */
+    @Override
+    public boolean visit(int styleKey, String content) {
+        accept(content);
+        return !overflow;
+    }
+
+    /**
+     * Accumulates the digits in a piece of text.
+     *
+     * @param text the text
+     */
+    private void accept(CharSequence text) {
+        for (int i = 0; i < text.length() && !overflow; i++) {
+            char c = text.charAt(i);
+            if (afterSectionSign) {
+                afterSectionSign = false;
+            } else if (c == '\u00A7') {
+                afterSectionSign = true;
+            } else if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (value > (Integer.MAX_VALUE - digit) / 10) {
+                    overflow = true;
+                } else {
+                    value = value * 10 + digit;
+                    found = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number formed by the digits visited since the last reset,
+     * or {@link #NO_NUMBER} if no number can be extracted.
+     *
+     * @return the number formed by the digits visited, or {@code NO_NUMBER}
+     *         if no number can be extracted
+     */
+    private int getResult() {
+        return found && !overflow ? value : NO_NUMBER;
+    }
+
+    /**
+     * Forgets the digits visited so far.
+     */
+    private void reset() {
+        value = 0;
+        found = false;
+        overflow = false;
+        afterSectionSign = false;
+    }
+}
@@ -26,6 +26,9 @@
 package io.github.leo3418.hbwhelper.util;
 
 import io.github.leo3418.hbwhelper.EventManager;
+import io.github.leo3418.hbwhelper.chat.ChatClassification;
+import io.github.leo3418.hbwhelper.chat.ChatMessage;
+import io.github.leo3418.hbwhelper.chat.PromptType;
 import io.github.leo3418.hbwhelper.event.ClientJoinInProgressGameEvent;
 import io.github.leo3418.hbwhelper.event.ClientLeaveGameEvent;
 import io.github.leo3418.hbwhelper.event.ClientRejoinGameEvent;
@@ -44,43 +47,6 @@ import net.minecraftforge.client.event.GuiOpenEvent;
  * @author Leo
  */
 public class GameDetector {
-    /*
-     * Note: Some of the prompts below in 1.14 and above differ from their
-     * counterpart in older Minecraft client versions.
-     */
-
-    /**
-     * Prompt client received in chat when a new ordinary game starts
-     */
-    private static final String ORDINARY_START_TEXT =
-            "\u00A7f\u00A7lBed Wars\u00A7r";
-
-    /**
-     * Prompt client received in chat when a Bed Wars game in Rush Mode starts
-     */
-    private static final String RUSH_START_TEXT =
-            "\u00A7f\u00A7lBed Wars Rush\u00A7r";
-
-    /**
-     * Prompt client received in chat when a Bed Wars game in Ultimate Mode
-     * starts
-     */
-    private static final String ULTIMATE_START_TEXT =
-            "\u00A7f\u00A7lBed Wars Ultimate\u00A7r";
-
-    /**
-     * Prompt client received in chat when a Bed Wars game in Lucky Blocks Mode
-     * starts
-     */
-    private static final String LUCKY_BLOCKS_START_TEXT =
-            "\u00A7f\u00A7lBed Wars Lucky Blocks\u00A7r";
-
-    /**
-     * Prompt client received in chat when it rejoins a game
-     */
-    private static final String REJOIN_TEXT =
-            "\u00A7e\u00A7lTo leave Bed Wars, type /lobby\u00A7r";
-
     /**
      * The only instance of this class
      */
@@ -139,9 +105,8 @@ public class GameDetector {
      *         up
      */
     public void update(GuiOpenEvent event) {
-        if (inBedWars && event.getGui() instanceof DownloadTerrainScreen) {
-            inBedWars = false;
-            EventManager.EVENT_BUS.post(new ClientLeaveGameEvent());
+        if (event.getGui() instanceof DownloadTerrainScreen) {
+            leave();
         }
     }
 
@@ -163,12 +128,26 @@ public class GameDetector {
      * @param event the event fired when client joins or leaves a server
      */
     public void update(ClientPlayerNetworkEvent event) {
-        if (inBedWars
-                && event instanceof ClientPlayerNetworkEvent.LoggedOutEvent) {
+        if (event instanceof ClientPlayerNetworkEvent.LoggedOutEvent) {
             /*
             GuiOpenEvent will not be called when client disconnects, so we need
             to detect ClientPlayerNetworkEvent.LoggedOutEvent
              */
+            leave();
+        }
+    }
+
+    /**
+     * Remembers that client has left the Bed Wars game it was in, and fires a
+     * {@link ClientLeaveGameEvent} on this mod's {@link EventManager#EVENT_BUS
+     * proprietary event bus}. Does nothing if client is not in a Bed Wars
+     * game.
+     * <p>
+     * Besides being called upon the events above, this method can be called
+     * directly when recorded chat is replayed without a Minecraft client.
+     */
+    public void leave() {
+        if (inBedWars) {
             inBedWars = false;
             EventManager.EVENT_BUS.post(new ClientLeaveGameEvent());
         }
@@ -193,20 +172,17 @@ public class GameDetector {
      * This method should be called whenever a {@link ClientChatReceivedEvent}
      * is fired.
      *
-     * @param event the event fired when client receives a chat message
+     * @param chatMessage the decoded chat message client receives
      */
-    public void update(ClientChatReceivedEvent event) {
+    public void update(ChatMessage chatMessage) {
         if (hypixelDetector.isIn() && !inBedWars) {
-            String message = TextComponents.toFormattedText(
-                    event.getMessage());
-            if (message.contains(ORDINARY_START_TEXT)
-                    || message.contains(RUSH_START_TEXT)
-                    || message.contains(ULTIMATE_START_TEXT)
-                    || message.contains(LUCKY_BLOCKS_START_TEXT)) {
+            ChatClassification classification =
+                    chatMessage.getClassification();
+            if (classification.matches(PromptType.GAME_START)) {
                 // A Bed Wars game starts
                 inBedWars = true;
                 EventManager.EVENT_BUS.post(new GameStartEvent());
-            } else if (message.contains(REJOIN_TEXT)) {
+            } else if (classification.matches(PromptType.REJOIN)) {
                 // Client rejoins a Bed Wars game
                 inBedWars = true;
                 EventManager.EVENT_BUS.post(new ClientRejoinGameEvent());
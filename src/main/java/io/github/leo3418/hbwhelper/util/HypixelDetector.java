@@ -78,6 +78,17 @@ public class HypixelDetector {
         return inHypixel;
     }
 
+    /**
+     * Overrides whether client is in Hypixel. This method is only intended
+     * for feeding recorded chat to the detectors without connecting to a
+     * server.
+     *
+     * @param inHypixel whether client should be treated as in Hypixel
+     */
+    public void override(boolean inHypixel) {
+        this.inHypixel = inHypixel;
+    }
+
     /**
      * When client connects to a server, checks and tracks if the server is
      * Hypixel. Or, when client disconnects from a server, remembers that
@@ -26,6 +26,9 @@
 package io.github.leo3418.hbwhelper.util;
 
 import io.github.leo3418.hbwhelper.EventManager;
+import io.github.leo3418.hbwhelper.chat.ChatClassification;
+import io.github.leo3418.hbwhelper.chat.ChatMessage;
+import io.github.leo3418.hbwhelper.chat.PromptType;
 import io.github.leo3418.hbwhelper.event.ClientJoinInProgressGameEvent;
 import io.github.leo3418.hbwhelper.event.TeleportCancelledEvent;
 import net.minecraftforge.client.event.ClientChatReceivedEvent;
@@ -44,27 +47,6 @@ import net.minecraftforge.client.event.ClientChatReceivedEvent;
  * @author Leo
  */
 public class InProgressGameDetector {
-    /**
-     * Prompt client received in chat when it joins an in-progress game for the
-     * first time
-     */
-    private static final String IN_PROGRESS_GAME_JOIN_TEXT =
-            "\u00A7aFound an in-progress Bed Wars game! Teleporting you to ";
-
-    /**
-     * Prompt client received in chat when Hypixel attempts to put the player
-     * into the server they are already in
-     */
-    private static final String ALREADY_CONNECTED_TEXT =
-            "\u00A7cYou are already connected to this server";
-
-    /**
-     * Prompt client received in chat when it joins an in-progress game that
-     * no longer accepts new players anymore
-     */
-    private static final String GAME_ALREADY_STARTED_TEXT =
-            "\u00A7cThis game has already started! Please try again!";
-
     /**
      * The only instance of this class
      */
@@ -117,18 +99,18 @@ public class InProgressGameDetector {
      * This method should be called whenever a {@link ClientChatReceivedEvent}
      * is fired.
      *
-     * @param event the event fired when client receives a chat message
+     * @param chatMessage the decoded chat message client receives
      */
-    public void detect(ClientChatReceivedEvent event) {
+    public void detect(ChatMessage chatMessage) {
         if (hypixelDetector.isIn()) {
-            String message = TextComponents.toFormattedText(
-                    event.getMessage());
-            if (message.contains(IN_PROGRESS_GAME_JOIN_TEXT)) {
+            ChatClassification classification =
+                    chatMessage.getClassification();
+            if (classification.matches(PromptType.IN_PROGRESS_GAME_JOIN)) {
                 EventManager.EVENT_BUS
                         .post(new ClientJoinInProgressGameEvent());
             } else if (gameDetector.isIn()
-                    && (message.contains(ALREADY_CONNECTED_TEXT)
-                    || message.contains(GAME_ALREADY_STARTED_TEXT))) {
+                    && classification.matches(
+                    PromptType.TELEPORT_CANCELLED)) {
                 /*
                 Client can also receive these messages when not in Bed Wars,
                 but we only care about them when client is in Bed Wars
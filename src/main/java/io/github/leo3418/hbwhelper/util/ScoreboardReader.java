@@ -74,7 +74,7 @@ public class ScoreboardReader {
      * @return a {@code Collection} of all lines on the scoreboard without
      *         formatting codes
      */
-    private static Collection<String> getLines() {
+    public static Collection<String> getLines() {
         return Objects.requireNonNull(Minecraft.getInstance().level)
                 .getScoreboard().getPlayerTeams().stream()
                 .map(team -> team.getPlayerPrefix().getString()
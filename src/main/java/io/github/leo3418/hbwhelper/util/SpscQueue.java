@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free first-in-first-out queue for exactly one producer
+ * thread and one consumer thread.
+ * <p>
+ * {@link #offer(Object)} must only be called by the producer thread, and
+ * {@link #poll()} must only be called by the consumer thread. Everything the
+ * producer writes before offering an element is visible to the consumer after
+ * it polls the element.
+ *
+ * @param <E> the type of elements in the queue
+ * @author Leo
+ */
+public final class SpscQueue<E> {
+    /**
+     * Storage of the elements, whose length is a power of two
+     */
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * Bit mask that maps a position to an index in {@link #elements}
+     */
+    private final int mask;
+
+    /**
+     * Position of the next element to be polled, only advanced by the
+     * consumer
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Position of the next element to be offered, only advanced by the
+     * producer
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Constructs a new empty {@code SpscQueue}.
+     *
+     * @param capacity the minimum number of elements the queue can hold,
+     *         which is rounded up to a power of two
+     * @throws IllegalArgumentException if {@code capacity} is not positive or
+     *         too large
+     */
+    public SpscQueue(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        elements = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Appends an element to the tail of this queue if it is not full. This
+     * method must only be called by the producer thread.
+     *
+     * @param element the element
+     * @return {@code true} if the element is appended, or {@code false} if
+     *         this queue is full
+     * @throws NullPointerException if {@code element == null}
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long currentTail = tail.get();
+        if (currentTail - head.get() > mask) {
+            return false;
+        }
+        elements.lazySet((int) currentTail & mask, element);
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the element at the head of this queue, or returns
+     * {@code null} if this queue is empty. This method must only be called by
+     * the consumer thread.
+     *
+     * @return the element at the head of this queue, or {@code null} if this
+     *         queue is empty
+     */
+    public E poll() {
+        long currentHead = head.get();
+        if (currentHead >= tail.get()) {
+            return null;
+        }
+        int index = (int) currentHead & mask;
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        head.lazySet(currentHead + 1);
+        return element;
+    }
+
+    /**
+     * Returns whether this queue is empty. The result might be stale if the
+     * other thread is modifying this queue concurrently.
+     *
+     * @return whether this queue is empty
+     */
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+}
@@ -30,34 +30,172 @@ import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.Style;
 import net.minecraft.util.text.TextFormatting;
 
-import java.util.*;
-import java.util.stream.Collectors;
-
-import static java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Provides methods that operate on {@linkplain ITextComponent text component
  * objects}.
+ * <p>
+ * A text component is viewed as a sequence of <i>runs</i>: every component in
+ * the tree that has non-empty {@linkplain ITextComponent#getContents()
+ * contents}, visited in pre-order. Each run has a <i>style key</i>, an
+ * {@code int} that identifies the formatting code generating the run's style,
+ * i.e. the legacy color character (if any) combined with a bit mask of the
+ * other styles.
  *
  * @author Leo
  */
 public class TextComponents {
     /**
-     * An immutable map that associates {@linkplain Color#getValue()} color
-     * integer codes} with format control strings with the section sign
-     * ({@code §})
+     * Visits runs of a text component.
+     *
+     * @see #visitRuns(ITextComponent, RunVisitor)
+     */
+    public interface RunVisitor {
+        /**
+         * Visits a run.
+         *
+         * @param styleKey the style key of the run
+         * @param content the contents of the run, which is never empty
+         * @return {@code true} if the next run should be visited, or
+         *         {@code false} to stop visiting
+         */
+        boolean visit(int styleKey, String content);
+    }
+
+    /**
+     * Number of low bits of a style key that store the bit mask of styles
+     * other than color; the legacy color character is stored above them
+     */
+    private static final int STYLE_BITS = 5;
+
+    /**
+     * Capacity of {@link #COLOR_KEYS} and {@link #COLOR_CHARS}, which must be
+     * a power of two and larger than the number of color formatting codes
+     */
+    private static final int COLOR_TABLE_CAPACITY = 64;
+
+    /**
+     * Marker of an empty slot in {@link #COLOR_KEYS}; color integer codes are
+     * never negative
+     */
+    private static final int EMPTY_COLOR_KEY = -1;
+
+    /**
+     * Keys of the open-addressed table that associates
+     * {@linkplain Color#getValue() color integer codes} with legacy color
+     * characters that follow the section sign ({@code §})
      */
-    private static final Map<Integer, String> COLOR_INT_TO_CTRL_STR_MAP =
-            Collections.unmodifiableMap(Arrays.stream(TextFormatting.values())
-                    .filter(TextFormatting::isColor)
-                    .map(textFormatting -> new SimpleImmutableEntry<>(
-                            textFormatting.getColor(),
-                            textFormatting.toString()
-                    ))
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey, Map.Entry::getValue
-                    ))
-            );
+    private static final int[] COLOR_KEYS = new int[COLOR_TABLE_CAPACITY];
+
+    /**
+     * Values of the open-addressed table that associates color integer codes
+     * with legacy color characters, in the same slots as their keys in
+     * {@link #COLOR_KEYS}
+     */
+    private static final char[] COLOR_CHARS = new char[COLOR_TABLE_CAPACITY];
+
+    /**
+     * Bit in a style bit mask for the obfuscated style
+     */
+    private static final int OBFUSCATED_BIT = 1;
+
+    /**
+     * Bit in a style bit mask for the bold style
+     */
+    private static final int BOLD_BIT = 1 << 1;
+
+    /**
+     * Bit in a style bit mask for the strikethrough style
+     */
+    private static final int STRIKETHROUGH_BIT = 1 << 2;
+
+    /**
+     * Bit in a style bit mask for the underlined style
+     */
+    private static final int UNDERLINE_BIT = 1 << 3;
+
+    /**
+     * Bit in a style bit mask for the italic style
+     */
+    private static final int ITALIC_BIT = 1 << 4;
+
+    /**
+     * Formatting codes for every combination of styles other than color,
+     * indexed by style bit mask
+     */
+    private static final String[] STYLE_CODES = new String[1 << STYLE_BITS];
+
+    /**
+     * Reset formatting code appended after the text of every component
+     */
+    private static final String RESET_CODE = "\u00A7r";
+
+    /**
+     * Initial number of components the traversal stack of a {@link Walker}
+     * can hold
+     */
+    private static final int INITIAL_STACK_SIZE = 16;
+
+    /**
+     * Initial capacity of the buffer of a {@link Flattener}
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * The {@link Walker} confined to each thread
+     */
+    private static final ThreadLocal<Walker> WALKER =
+            ThreadLocal.withInitial(Walker::new);
+
+    /**
+     * The {@link Flattener} confined to each thread
+     */
+    private static final ThreadLocal<Flattener> FLATTENER =
+            ThreadLocal.withInitial(Flattener::new);
+
+    static {
+        Arrays.fill(COLOR_KEYS, EMPTY_COLOR_KEY);
+        for (TextFormatting textFormatting : TextFormatting.values()) {
+            if (textFormatting.isColor()) {
+                Integer color = textFormatting.getColor();
+                if (color != null) {
+                    int slot = colorSlot(color);
+                    while (COLOR_KEYS[slot] != EMPTY_COLOR_KEY
+                            && COLOR_KEYS[slot] != color) {
+                        slot = (slot + 1) & (COLOR_TABLE_CAPACITY - 1);
+                    }
+                    if (COLOR_KEYS[slot] == EMPTY_COLOR_KEY) {
+                        COLOR_KEYS[slot] = color;
+                        // toString() returns the section sign followed by
+                        // the formatting character
+                        COLOR_CHARS[slot] = textFormatting.toString().charAt(1);
+                    }
+                }
+            }
+        }
+        for (int mask = 0; mask < STYLE_CODES.length; mask++) {
+            StringBuilder codeBuilder = new StringBuilder();
+            if ((mask & OBFUSCATED_BIT) != 0) {
+                codeBuilder.append(TextFormatting.OBFUSCATED);
+            }
+            if ((mask & BOLD_BIT) != 0) {
+                codeBuilder.append(TextFormatting.BOLD);
+            }
+            if ((mask & STRIKETHROUGH_BIT) != 0) {
+                codeBuilder.append(TextFormatting.STRIKETHROUGH);
+            }
+            if ((mask & UNDERLINE_BIT) != 0) {
+                codeBuilder.append(TextFormatting.UNDERLINE);
+            }
+            if ((mask & ITALIC_BIT) != 0) {
+                codeBuilder.append(TextFormatting.ITALIC);
+            }
+            STYLE_CODES[mask] = codeBuilder.toString();
+        }
+    }
 
     /**
      * Prevents instantiation of this class.
@@ -78,56 +216,287 @@ public class TextComponents {
      *         in Minecraft 1.16.
      */
     public static String toFormattedText(ITextComponent textComponent) {
+        return formattedTextView(textComponent).toString();
+    }
+
+    /**
+     * Returns a view of the formatted text converted from an
+     * {@link ITextComponent} object, without allocating a new {@link String}.
+     * The formatted text will end with a reset formatting code ({@code §r}).
+     * <p>
+     * The returned {@link CharSequence} is backed by a buffer confined to the
+     * current thread, so it must not be passed to other threads, and it is
+     * only valid until this method or {@link #toFormattedText(ITextComponent)}
+     * is called again on the same thread.
+     *
+     * @param textComponent the text component
+     * @return a view of the formatted text generated from the text component
+     * @throws NullPointerException if {@code textComponent == null}
+     */
+    public static CharSequence formattedTextView(ITextComponent textComponent) {
         Objects.requireNonNull(textComponent, "textComponent");
-        StringBuilder resultBuilder = new StringBuilder();
-        String text = textComponent.getContents();
-        if (!text.isEmpty()) {
-            resultBuilder.append(formattingCodeOf(textComponent.getStyle()))
-                    .append(text)
-                    .append("\u00A7r");
-        }
-        textComponent.getSiblings().forEach(component ->
-                resultBuilder.append(toFormattedText(component)));
-        return resultBuilder.toString();
+        return FLATTENER.get().flatten(textComponent);
     }
 
     /**
-     * Returns the formatting code that can generate the specified
-     * {@linkplain Style style}.
+     * Visits every run of a text component in order until the
+     * {@link RunVisitor} asks to stop. Nothing is serialized to text.
      *
-     * @param style the style whose corresponding formatting code is queried
-     * @return the formatting code for the specified style
+     * @param textComponent the text component
+     * @param visitor the visitor of runs
+     * @throws NullPointerException if {@code textComponent == null} or
+     *         {@code visitor == null}
+     */
+    public static void visitRuns(ITextComponent textComponent,
+                                 RunVisitor visitor) {
+        Objects.requireNonNull(textComponent, "textComponent");
+        Objects.requireNonNull(visitor, "visitor");
+        Walker walker = WALKER.get();
+        if (walker.walking) {
+            // The visitor is visiting another component on this thread
+            walker = new Walker();
+        }
+        walker.walk(textComponent, visitor);
+    }
+
+    /**
+     * Returns the style key of a {@linkplain Style style}.
+     *
+     * @param style the style
+     * @return the style key of the style
      * @throws NullPointerException if {@code style == null}
      */
-    private static String formattingCodeOf(Style style) {
+    public static int styleKeyOf(Style style) {
         Objects.requireNonNull(style, "style");
-        StringBuilder formattingCodeBuilder = new StringBuilder();
+        char colorChar = 0;
         Color color = style.getColor();
         if (color != null) {
             int colorCode = color.getValue();
-            formattingCodeBuilder.append(
-                    COLOR_INT_TO_CTRL_STR_MAP.getOrDefault(colorCode, ""));
+            int slot = colorSlot(colorCode);
+            while (COLOR_KEYS[slot] != EMPTY_COLOR_KEY) {
+                if (COLOR_KEYS[slot] == colorCode) {
+                    colorChar = COLOR_CHARS[slot];
+                    break;
+                }
+                slot = (slot + 1) & (COLOR_TABLE_CAPACITY - 1);
+            }
         }
+        int mask = 0;
         if (style.isObfuscated()) {
-            formattingCodeBuilder.append(
-                    TextFormatting.OBFUSCATED.toString());
+            mask |= OBFUSCATED_BIT;
         }
         if (style.isBold()) {
-            formattingCodeBuilder.append(
-                    TextFormatting.BOLD.toString());
+            mask |= BOLD_BIT;
         }
         if (style.isStrikethrough()) {
-            formattingCodeBuilder.append(
-                    TextFormatting.STRIKETHROUGH.toString());
+            mask |= STRIKETHROUGH_BIT;
         }
         if (style.isUnderlined()) {
-            formattingCodeBuilder.append(
-                    TextFormatting.UNDERLINE.toString());
+            mask |= UNDERLINE_BIT;
         }
         if (style.isItalic()) {
-            formattingCodeBuilder.append(
-                    TextFormatting.ITALIC.toString());
+            mask |= ITALIC_BIT;
+        }
+        return (colorChar << STYLE_BITS) | mask;
+    }
+
+    /**
+     * Returns the style key of the formatting code in a region of a
+     * {@link CharSequence}, or {@code -1} if the region is not a formatting
+     * code that {@link #appendFormattingCode(int, StringBuilder)} would
+     * generate, i.e. an optional color code followed by codes of other styles
+     * in the order of obfuscated, bold, strikethrough, underlined and italic.
+     *
+     * @param code the {@code CharSequence} containing the formatting code
+     * @param start the start of the region, inclusive
+     * @param end the end of the region, exclusive
+     * @return the style key of the formatting code, or {@code -1} if the
+     *         region is not a canonical formatting code
+     */
+    public static int parseStyleKey(CharSequence code, int start, int end) {
+        if ((end - start) % 2 != 0) {
+            return -1;
+        }
+        char colorChar = 0;
+        int mask = 0;
+        for (int i = start; i < end; i += 2) {
+            if (code.charAt(i) != '\u00A7') {
+                return -1;
+            }
+            TextFormatting formatting =
+                    TextFormatting.getByCode(code.charAt(i + 1));
+            if (formatting == null) {
+                return -1;
+            }
+            if (formatting.isColor()) {
+                if (i != start) {
+                    return -1;
+                }
+                colorChar = formatting.toString().charAt(1);
+            } else {
+                int bit = styleBitOf(formatting);
+                // Styles must be unique and appear in canonical order
+                if (bit == 0 || bit <= mask) {
+                    return -1;
+                }
+                mask |= bit;
+            }
+        }
+        return (colorChar << STYLE_BITS) | mask;
+    }
+
+    /**
+     * Returns whether the formatting code for a style key contains a color
+     * code.
+     *
+     * @param styleKey the style key
+     * @return whether the formatting code for the style key contains a color
+     *         code
+     */
+    public static boolean hasColor(int styleKey) {
+        return (styleKey >>> STYLE_BITS) != 0;
+    }
+
+    /**
+     * Appends the formatting code for a style key to a {@link StringBuilder}.
+     *
+     * @param styleKey the style key
+     * @param builder the {@code StringBuilder} the formatting code is
+     *         appended to
+     */
+    public static void appendFormattingCode(int styleKey,
+                                            StringBuilder builder) {
+        char colorChar = (char) (styleKey >>> STYLE_BITS);
+        if (colorChar != 0) {
+            builder.append('\u00A7').append(colorChar);
+        }
+        builder.append(STYLE_CODES[styleKey & ((1 << STYLE_BITS) - 1)]);
+    }
+
+    /**
+     * Returns the bit in a style bit mask for a non-color formatting, or
+     * {@code 0} if the formatting is not a style in style bit masks.
+     *
+     * @param formatting the non-color formatting
+     * @return the bit in a style bit mask for the formatting, or {@code 0} if
+     *         not applicable
+     */
+    private static int styleBitOf(TextFormatting formatting) {
+        switch (formatting) {
+            case OBFUSCATED:
+                return OBFUSCATED_BIT;
+            case BOLD:
+                return BOLD_BIT;
+            case STRIKETHROUGH:
+                return STRIKETHROUGH_BIT;
+            case UNDERLINE:
+                return UNDERLINE_BIT;
+            case ITALIC:
+                return ITALIC_BIT;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the preferred slot of a color integer code in
+     * {@link #COLOR_KEYS}.
+     *
+     * @param colorCode the color integer code
+     * @return the preferred slot of the color integer code
+     */
+    private static int colorSlot(int colorCode) {
+        return (colorCode * 0x9E3779B9) >>> (Integer.SIZE
+                - Integer.numberOfTrailingZeros(COLOR_TABLE_CAPACITY));
+    }
+
+    /**
+     * Walks the runs of text components with an explicit stack, so walking
+     * does not recurse or allocate once the stack has grown large enough.
+     * <p>
+     * Objects of this class are confined to a single thread.
+     */
+    private static final class Walker {
+        /**
+         * The stack of components yet to be visited
+         */
+        private ITextComponent[] stack =
+                new ITextComponent[INITIAL_STACK_SIZE];
+
+        /**
+         * Whether this walker is in the middle of a walk
+         */
+        private boolean walking;
+
+        /**
+         * Visits runs of a component in pre-order, i.e. the contents of a
+         * component followed by the contents of each of its siblings in order.
+         *
+         * @param root the component
+         * @param visitor the visitor of runs
+         */
+        private void walk(ITextComponent root, RunVisitor visitor) {
+            walking = true;
+            int size = 0;
+            try {
+                stack[size++] = root;
+                while (size > 0) {
+                    ITextComponent component = stack[--size];
+                    stack[size] = null;
+                    String text = component.getContents();
+                    if (!text.isEmpty() && !visitor.visit(
+                            styleKeyOf(component.getStyle()), text)) {
+                        break;
+                    }
+                    // Pushes siblings in reverse order so they are visited in
+                    // their original order
+                    List<ITextComponent> siblings = component.getSiblings();
+                    int siblingCount = siblings.size();
+                    if (size + siblingCount > stack.length) {
+                        stack = Arrays.copyOf(stack, Math.max(
+                                stack.length * 2, size + siblingCount));
+                    }
+                    for (int i = siblingCount - 1; i >= 0; i--) {
+                        stack[size++] = siblings.get(i);
+                    }
+                }
+            } finally {
+                Arrays.fill(stack, 0, size, null);
+                walking = false;
+            }
+        }
+    }
+
+    /**
+     * Flattens text components into formatted text in a reusable buffer.
+     * <p>
+     * Objects of this class are confined to a single thread.
+     */
+    private static final class Flattener implements RunVisitor {
+        /**
+         * The buffer the formatted text is written into
+         */
+        private final StringBuilder buffer =
+                new StringBuilder(INITIAL_BUFFER_SIZE);
+
+        /**
+         * Writes the formatted text of a component into the buffer and
+         * returns the buffer.
+         *
+         * @param root the component
+         * @return the buffer holding the formatted text of the component
+         */
+        private CharSequence flatten(ITextComponent root) {
+            buffer.setLength(0);
+            visitRuns(root, this);
+            return buffer;
+        }
+
+        @Override
+        public boolean visit(int styleKey, String content) {
+            appendFormattingCode(styleKey, buffer);
+            buffer.append(content).append(RESET_CODE);
+            return true;
         }
-        return formattingCodeBuilder.toString();
     }
 }
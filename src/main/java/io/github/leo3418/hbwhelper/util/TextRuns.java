@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2018-2021 Leo3418 <https://github.com/Leo3418>
+ *
+ * This file is part of Hypixel Bed Wars Helper (HBW Helper).
+ *
+ * HBW Helper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * HBW Helper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Under section 7 of GPL version 3, you are granted additional
+ * permissions described in the HBW Helper MC Exception.
+ *
+ * You should have received a copy of the GNU GPL and a copy of the
+ * HBW Helper MC Exception along with this program's source code; see
+ * the files LICENSE.txt and LICENSE-MCE.txt respectively.  If not, see
+ * <http://www.gnu.org/licenses/> and
+ * <https://github.com/Leo3418/HBWHelper>.
+ */
+
+package io.github.leo3418.hbwhelper.util;
+
+import net.minecraft.util.text.ITextComponent;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A sequence of runs of a text component, each of which consists of a style
+ * key and non-empty contents, as defined in {@link TextComponents}.
+ * <p>
+ * Objects of this class can be reused by {@linkplain #clear() clearing} them
+ * and {@linkplain #readFrom(ITextComponent) reading} another component, in
+ * which case no allocation happens once the internal arrays have grown large
+ * enough. Objects of this class are not thread-safe.
+ *
+ * @author Leo
+ */
+public final class TextRuns implements TextComponents.RunVisitor {
+    /**
+     * Initial number of runs an object of this class can hold
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Offset basis of the FNV-1a hash used by {@link #structuralHash()}
+     */
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    /**
+     * Prime of the FNV-1a hash used by {@link #structuralHash()}
+     */
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    /**
+     * The {@link Hasher} confined to each thread
+     */
+    private static final ThreadLocal<Hasher> HASHER =
+            ThreadLocal.withInitial(Hasher::new);
+
+    /**
+     * The {@link Comparer} confined to each thread
+     */
+    private static final ThreadLocal<Comparer> COMPARER =
+            ThreadLocal.withInitial(Comparer::new);
+
+    /**
+     * Style keys of the runs
+     */
+    private int[] styleKeys;
+
+    /**
+     * Contents of the runs
+     */
+    private String[] contents;
+
+    /**
+     * Number of runs
+     */
+    private int size;
+
+    /**
+     * Whether contents of any run contain a section sign ({@code §}), i.e.
+     * legacy formatting codes embedded in the text
+     */
+    private boolean legacyCodes;
+
+    /**
+     * Constructs a new empty {@code TextRuns} object.
+     */
+    public TextRuns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new empty {@code TextRuns} object that can hold a number of
+     * runs before growing.
+     *
+     * @param capacity the number of runs the object can hold before growing
+     */
+    private TextRuns(int capacity) {
+        styleKeys = new int[Math.max(capacity, 1)];
+        contents = new String[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Returns a new {@code TextRuns} object holding the runs of a text
+     * component.
+     *
+     * @param textComponent the text component
+     * @return a new {@code TextRuns} object holding the runs of the text
+     *         component
+     * @throws NullPointerException if {@code textComponent == null}
+     */
+    public static TextRuns of(ITextComponent textComponent) {
+        TextRuns runs = new TextRuns();
+        runs.readFrom(textComponent);
+        return runs;
+    }
+
+    /**
+     * Replaces the runs in this object with the runs of a text component.
+     *
+     * @param textComponent the text component
+     * @return this object
+     * @throws NullPointerException if {@code textComponent == null}
+     */
+    public TextRuns readFrom(ITextComponent textComponent) {
+        clear();
+        TextComponents.visitRuns(textComponent, this);
+        return this;
+    }
+
+    /**
+     * Removes all runs in this object.
+     */
+    public void clear() {
+        Arrays.fill(contents, 0, size, null);
+        size = 0;
+        legacyCodes = false;
+    }
+
+    /**
+     * Appends a run to this object.
+     *
+     * @param styleKey the style key of the run
+     * @param content the contents of the run
+     * @throws NullPointerException if {@code content == null}
+     * @throws IllegalArgumentException if {@code content} is empty
+     */
+    public void add(int styleKey, String content) {
+        Objects.requireNonNull(content, "content");
+        if (content.isEmpty()) {
+            throw new IllegalArgumentException("Empty run contents");
+        }
+        if (size == styleKeys.length) {
+            styleKeys = Arrays.copyOf(styleKeys, size * 2);
+            contents = Arrays.copyOf(contents, size * 2);
+        }
+        styleKeys[size] = styleKey;
+        contents[size] = content;
+        size++;
+        if (content.indexOf('\u00A7') >= 0) {
+            legacyCodes = true;
+        }
+    }
+
+    /**
+     * Appends a run to this object; this method allows this object to be
+     * passed to {@link TextComponents#visitRuns}.
+     *
+     * @param styleKey the style key of the run
+     * @param content the contents of the run
+     * @return always {@code true}
+     */
+    @Override
+    public boolean visit(int styleKey, String content) {
+        add(styleKey, content);
+        return true;
+    }
+
+    /**
+     * Returns the number of runs in this object.
+     *
+     * @return the number of runs in this object
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the style key of a run.
+     *
+     * @param index the index of the run
+     * @return the style key of the run
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int styleKey(int index) {
+        checkIndex(index);
+        return styleKeys[index];
+    }
+
+    /**
+     * Returns the contents of a run.
+     *
+     * @param index the index of the run
+     * @return the contents of the run
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String content(int index) {
+        checkIndex(index);
+        return contents[index];
+    }
+
+    /**
+     * Returns whether contents of any run contain a section sign
+     * ({@code §}), i.e. legacy formatting codes embedded in the text, in which
+     * case the runs do not reflect the actual formatting of the text.
+     *
+     * @return whether contents of any run contain legacy formatting codes
+     */
+    public boolean hasLegacyCodes() {
+        return legacyCodes;
+    }
+
+    /**
+     * Appends the formatted text of the runs to a {@link StringBuilder}, which
+     * is the same as the formatted text generated by
+     * {@link TextComponents#toFormattedText} from the original component.
+     *
+     * @param builder the {@code StringBuilder}
+     * @return the {@code StringBuilder}
+     */
+    public StringBuilder appendFormattedText(StringBuilder builder) {
+        for (int i = 0; i < size; i++) {
+            TextComponents.appendFormattingCode(styleKeys[i], builder);
+            builder.append(contents[i]).append("\u00A7r");
+        }
+        return builder;
+    }
+
+    /**
+     * Returns a 64-bit hash of the style keys and contents of all runs in
+     * this object.
+     * <p>
+     * The hash is computed from the hash codes of the contents, which
+     * {@link String} caches, so this method does not read the characters of
+     * a run again once its hash code has been computed.
+     *
+     * @return a 64-bit hash of the runs
+     * @see #structuralHash(ITextComponent)
+     */
+    public long structuralHash() {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < size; i++) {
+            hash = hashRun(hash, styleKeys[i], contents[i]);
+        }
+        return hash ^ size;
+    }
+
+    /**
+     * Returns the same 64-bit hash as {@link #structuralHash()} would return
+     * for the runs of a text component, without storing the runs.
+     *
+     * @param textComponent the text component
+     * @return a 64-bit hash of the runs of the text component
+     * @throws NullPointerException if {@code textComponent == null}
+     */
+    public static long structuralHash(ITextComponent textComponent) {
+        return HASHER.get().hash(textComponent);
+    }
+
+    /**
+     * Returns whether this object holds the same runs as another
+     * {@code TextRuns} object.
+     *
+     * @param other the other {@code TextRuns} object
+     * @return whether both objects hold the same runs
+     * @throws NullPointerException if {@code other == null}
+     */
+    public boolean sameRunsAs(TextRuns other) {
+        Objects.requireNonNull(other, "other");
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (styleKeys[i] != other.styleKeys[i]
+                    || !contents[i].equals(other.contents[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether this object holds the runs of a text component, without
+     * storing the runs of the text component.
+     *
+     * @param textComponent the text component
+     * @return whether this object holds the runs of the text component
+     * @throws NullPointerException if {@code textComponent == null}
+     */
+    public boolean sameRunsAs(ITextComponent textComponent) {
+        return COMPARER.get().compare(this, textComponent);
+    }
+
+    /**
+     * Returns a new {@code TextRuns} object holding the same runs as this
+     * object, which does not share any state with this object.
+     *
+     * @return a copy of this object
+     */
+    public TextRuns copy() {
+        TextRuns copy = new TextRuns(size);
+        System.arraycopy(styleKeys, 0, copy.styleKeys, 0, size);
+        System.arraycopy(contents, 0, copy.contents, 0, size);
+        copy.size = size;
+        copy.legacyCodes = legacyCodes;
+        return copy;
+    }
+
+    /**
+     * Checks if an index of run is in range.
+     *
+     * @param index the index of run
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Adds a run to an FNV-1a hash of runs.
+     *
+     * @param hash the hash of the preceding runs
+     * @param styleKey the style key of the run
+     * @param content the contents of the run
+     * @return the hash of the preceding runs and the run
+     */
+    private static long hashRun(long hash, int styleKey, String content) {
+        hash = (hash ^ styleKey) * FNV_PRIME;
+        hash = (hash ^ content.hashCode()) * FNV_PRIME;
+        return (hash ^ content.length()) * FNV_PRIME;
+    }
+
+    /**
+     * Computes {@linkplain #structuralHash() structural hashes} of text
+     * components while visiting their runs.
+     * <p>
+     * Objects of this class are confined to a single thread.
+     */
+    private static final class Hasher implements TextComponents.RunVisitor {
+        /**
+         * The hash of the runs visited so far
+         */
+        private long hash;
+
+        /**
+         * Number of runs visited so far
+         */
+        private int size;
+
+        /**
+         * Returns the structural hash of the runs of a component.
+         *
+         * @param root the component
+         * @return the structural hash of the runs of the component
+         */
+        private long hash(ITextComponent root) {
+            hash = FNV_OFFSET_BASIS;
+            size = 0;
+            TextComponents.visitRuns(root, this);
+            return hash ^ size;
+        }
+
+        @Override
+        public boolean visit(int styleKey, String content) {
+            hash = hashRun(hash, styleKey, content);
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * Compares runs of text components with runs in {@code TextRuns} objects
+     * while visiting them.
+     * <p>
+     * Objects of this class are confined to a single thread.
+     */
+    private static final class Comparer
+            implements TextComponents.RunVisitor {
+        /**
+         * The runs being compared with, or {@code null} outside a comparison
+         */
+        private TextRuns runs;
+
+        /**
+         * Number of runs visited so far
+         */
+        private int index;
+
+        /**
+         * Whether all runs visited so far are the same as in {@link #runs}
+         */
+        private boolean same;
+
+        /**
+         * Returns whether a {@code TextRuns} object holds the runs of a
+         * component.
+         *
+         * @param runs the {@code TextRuns} object
+         * @param root the component
+         * @return whether the {@code TextRuns} object holds the runs of the
+         *         component
+         */
+        private boolean compare(TextRuns runs, ITextComponent root) {
+            this.runs = runs;
+            index = 0;
+            same = true;
+            try {
+                TextComponents.visitRuns(root, this);
+                return same && index == runs.size;
+            } finally {
+                this.runs = null;
+            }
+        }
+
+        @Override
+        public boolean visit(int styleKey, String content) {
+            same = index < runs.size && styleKey == runs.styleKeys[index]
+                    && content.equals(runs.contents[index]);
+            index++;
+            return same;
+        }
+    }
+}